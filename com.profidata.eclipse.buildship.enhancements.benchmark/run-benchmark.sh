@@ -0,0 +1,65 @@
+#!/bin/sh
+#
+# Measures startup and first Gradle synchronization of an Eclipse installation with and without the aspects of
+# com.profidata.eclipse.buildship.enhancements being woven. The installation must contain this benchmark bundle,
+# the enhancement bundles and the Equinox weaving bundles. Each run uses a fresh workspace and the same generated
+# build, which is synchronized offline with a local Gradle installation.
+#
+# The weaving cost is the difference between the woven and the not woven runs.
+#
+# usage: run-benchmark.sh <eclipse home> <gradle home> [runs] [projects] [result dir]
+
+set -e
+
+if [ $# -lt 2 ]; then
+	echo "usage: $0 <eclipse home> <gradle home> [runs] [projects] [result dir]" >&2
+	exit 1
+fi
+
+ECLIPSE_HOME=$1
+GRADLE_HOME=$2
+RUNS=${3:-5}
+PROJECTS=${4:-50}
+RESULT_DIR=${5:-benchmark-result}
+
+RESULT_FILE=$RESULT_DIR/result.csv
+BUILD_DIR=$RESULT_DIR/build-$PROJECTS
+
+mkdir -p "$RESULT_DIR"
+
+run() {
+	WORKSPACE=$RESULT_DIR/workspace
+	rm -rf "$WORKSPACE"
+	"$ECLIPSE_HOME/eclipse" -nosplash -consoleLog \
+		-application com.profidata.eclipse.buildship.enhancements.benchmark.application \
+		-data "$WORKSPACE" \
+		-build "$BUILD_DIR" -projects "$PROJECTS" -gradleHome "$GRADLE_HOME" -result "$RESULT_FILE" \
+		-vmargs -Dosgi.framework.extensions=$1
+}
+
+# the first run generates the build and warms up the file system cache, it is not recorded
+run ""
+rm -f "$RESULT_FILE"
+
+i=0
+while [ $i -lt "$RUNS" ]; do
+	run org.eclipse.equinox.weaving.hook
+	run ""
+	i=$((i + 1))
+done
+
+# median of each column per mode
+awk -F, '
+	NR == 1 { for (i = 1; i <= NF; i++) name[i] = $i; columns = NF; next }
+	{ mode = $1; count[mode]++; for (i = 2; i <= NF; i++) value[mode, i, count[mode]] = $i }
+	END {
+		for (mode in count) {
+			printf "woven=%s runs=%d\n", mode, count[mode]
+			for (i = 3; i <= columns; i++) {
+				n = count[mode]
+				for (j = 1; j <= n; j++) sorted[j] = value[mode, i, j]
+				for (j = 1; j <= n; j++) for (k = j + 1; k <= n; k++) if (sorted[k] + 0 < sorted[j] + 0) { t = sorted[j]; sorted[j] = sorted[k]; sorted[k] = t }
+				printf "  %-22s %s\n", name[i], sorted[int((n + 1) / 2)]
+			}
+		}
+	}' "$RESULT_FILE"
@@ -0,0 +1,145 @@
+package com.profidata.eclipse.buildship.enhancements.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.buildship.core.BuildConfiguration;
+import org.eclipse.buildship.core.GradleBuild;
+import org.eclipse.buildship.core.GradleCore;
+import org.eclipse.buildship.core.GradleDistribution;
+import org.eclipse.buildship.core.SynchronizationResult;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+/**
+ * Headless application measuring the startup and the first Gradle synchronization of a generated build, with or
+ * without the aspects being woven (see <code>run-benchmark.sh</code>). Each run appends one line to the result file.
+ * <p>
+ * Arguments:
+ * <ul>
+ * <li><code>-build &lt;dir&gt;</code> directory of the generated Gradle build, generated if it does not exist</li>
+ * <li><code>-projects &lt;count&gt;</code> number of plugin projects of the generated build (default 50)</li>
+ * <li><code>-gradleHome &lt;dir&gt;</code> local Gradle installation, the build is synchronized offline</li>
+ * <li><code>-result &lt;file&gt;</code> csv file the measurements are appended to</li>
+ * </ul>
+ */
+public class BenchmarkApplication implements IApplication {
+	private static final String WEAVING_HOOK = "org.eclipse.equinox.weaving.hook";
+
+	@Override
+	public Object start(IApplicationContext theContext) throws Exception {
+		long aApplicationStart = System.currentTimeMillis();
+		Map<String, String> allArguments = getArguments((String[]) theContext.getArguments().get(IApplicationContext.APPLICATION_ARGS));
+		Path aBuildDirectory = Paths.get(allArguments.getOrDefault("build", "benchmark-build"));
+		Path aResultFile = Paths.get(allArguments.getOrDefault("result", "benchmark-result.csv"));
+		int aProjectCount = Integer.parseInt(allArguments.getOrDefault("projects", "50"));
+		String aGradleHome = allArguments.get("gradleHome");
+
+		if (aGradleHome == null) {
+			System.err.println("missing argument: -gradleHome <local Gradle installation>");
+			return Integer.valueOf(1);
+		}
+		if (!Files.isDirectory(aBuildDirectory)) {
+			BenchmarkBuildGenerator.generate(aBuildDirectory, aProjectCount);
+		}
+
+		Map<String, Object> allMeasurements = new LinkedHashMap<>();
+
+		allMeasurements.put("woven", Boolean.valueOf(isWeavingEnabled()));
+		allMeasurements.put("projects", Integer.valueOf(aProjectCount));
+		allMeasurements.put("startupMillis", Long.valueOf(aApplicationStart - ManagementFactory.getRuntimeMXBean().getStartTime()));
+		allMeasurements.put("startupLoadedClasses", Integer.valueOf(ManagementFactory.getClassLoadingMXBean().getLoadedClassCount()));
+		allMeasurements.put("startupHeapBytes", Long.valueOf(getUsedHeap()));
+
+		// the first synchronization imports all projects into the empty workspace
+		allMeasurements.put("firstSyncMillis", Long.valueOf(synchronize(aBuildDirectory, aGradleHome)));
+		allMeasurements.put("secondSyncMillis", Long.valueOf(synchronize(aBuildDirectory, aGradleHome)));
+		allMeasurements.put("loadedClasses", Integer.valueOf(ManagementFactory.getClassLoadingMXBean().getLoadedClassCount()));
+		allMeasurements.put("totalLoadedClasses", Long.valueOf(ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount()));
+		allMeasurements.put("heapBytes", Long.valueOf(getUsedHeap()));
+
+		writeResult(aResultFile, allMeasurements);
+		System.out.println(allMeasurements);
+		return IApplication.EXIT_OK;
+	}
+
+	@Override
+	public void stop() {
+		// the application ends by itself
+	}
+
+	/**
+	 * @return the time needed to synchronize the build and to finish all jobs triggered by the synchronization
+	 */
+	private static long synchronize(Path theBuildDirectory, String theGradleHome) throws Exception {
+		BuildConfiguration aConfiguration = BuildConfiguration.forRootProjectDirectory(theBuildDirectory.toFile())
+				.overrideWorkspaceConfiguration(true)
+				.gradleDistribution(GradleDistribution.forLocalInstallation(new File(theGradleHome)))
+				.offlineMode(true)
+				.autoSync(false)
+				.build();
+		GradleBuild aGradleBuild = GradleCore.getWorkspace().createBuild(aConfiguration);
+		long aStart = System.nanoTime();
+		SynchronizationResult aResult = aGradleBuild.synchronize(new NullProgressMonitor());
+
+		if (!aResult.getStatus().isOK()) {
+			throw new IllegalStateException("synchronization failed: " + aResult.getStatus().getMessage(), aResult.getStatus().getException());
+		}
+
+		waitForJobs();
+		return (System.nanoTime() - aStart) / 1_000_000;
+	}
+
+	private static void waitForJobs() throws InterruptedException {
+		Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+		while (!Job.getJobManager().isIdle()) {
+			Thread.sleep(50);
+		}
+	}
+
+	private static boolean isWeavingEnabled() {
+		return System.getProperty("osgi.framework.extensions", "").contains(WEAVING_HOOK);
+	}
+
+	private static long getUsedHeap() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static Map<String, String> getArguments(String[] theArguments) {
+		Map<String, String> allArguments = new LinkedHashMap<>();
+		List<String> someArguments = theArguments != null ? Arrays.asList(theArguments) : Arrays.asList();
+
+		for (int i = 0; i + 1 < someArguments.size(); i++) {
+			if (someArguments.get(i).startsWith("-")) {
+				allArguments.put(someArguments.get(i).substring(1), someArguments.get(++i));
+			}
+		}
+		return allArguments;
+	}
+
+	private static void writeResult(Path theResultFile, Map<String, Object> theMeasurements) throws IOException {
+		StringBuilder aLines = new StringBuilder();
+
+		if (!Files.exists(theResultFile)) {
+			aLines.append(String.join(",", theMeasurements.keySet())).append('\n');
+		}
+		aLines.append(theMeasurements.values().stream().map(String::valueOf).collect(Collectors.joining(","))).append('\n');
+
+		Files.write(theResultFile, aLines.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+}
@@ -0,0 +1,66 @@
+package com.profidata.eclipse.buildship.enhancements.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates a Gradle build of plugin projects without any external dependency, so it can be synchronized offline.
+ * Each project has a main and a test source folder, the latter causes a test fragment to be generated.
+ */
+final class BenchmarkBuildGenerator {
+
+	private BenchmarkBuildGenerator() {
+	}
+
+	static void generate(Path theBuildDirectory, int theProjectCount) throws IOException {
+		StringBuilder aSettings = new StringBuilder("rootProject.name = 'benchmark'\n");
+
+		for (int i = 0; i < theProjectCount; i++) {
+			String aProjectName = String.format("benchmark.p%03d", Integer.valueOf(i));
+
+			aSettings.append("include '").append(aProjectName).append("'\n");
+			generateProject(theBuildDirectory.resolve(aProjectName), aProjectName, i > 0 ? String.format("benchmark.p%03d", Integer.valueOf(i - 1)) : null);
+		}
+
+		write(theBuildDirectory.resolve("settings.gradle"), aSettings.toString());
+		write(theBuildDirectory.resolve("build.gradle"), ""
+				+ "subprojects {\n"
+				+ "\tapply plugin: 'java'\n"
+				+ "\tapply plugin: 'eclipse'\n"
+				+ "\n"
+				+ "\teclipse.project.natures 'org.eclipse.pde.PluginNature'\n"
+				+ "}\n");
+	}
+
+	private static void generateProject(Path theProjectDirectory, String theProjectName, String theRequiredProjectName) throws IOException {
+		String aPackagePath = theProjectName.replace('.', '/');
+
+		write(theProjectDirectory.resolve("build.gradle"), theRequiredProjectName != null ? "dependencies {\n\timplementation project(':" + theRequiredProjectName + "')\n}\n" : "");
+		write(theProjectDirectory.resolve("META-INF/MANIFEST.MF"), ""
+				+ "Manifest-Version: 1.0\n"
+				+ "Bundle-ManifestVersion: 2\n"
+				+ "Bundle-SymbolicName: " + theProjectName + "\n"
+				+ "Bundle-Version: 1.0.0.qualifier\n"
+				+ "Bundle-RequiredExecutionEnvironment: JavaSE-11\n"
+				+ "Export-Package: " + theProjectName + "\n"
+				+ (theRequiredProjectName != null ? "Require-Bundle: " + theRequiredProjectName + "\n" : ""));
+		write(theProjectDirectory.resolve("build.properties"), "source.. = src/main/java/\nbin.includes = META-INF/,\\\n               .\n");
+		write(theProjectDirectory.resolve("src/main/java/" + aPackagePath + "/Main.java"), ""
+				+ "package " + theProjectName + ";\n"
+				+ "\n"
+				+ "public class Main {\n"
+				+ "}\n");
+		write(theProjectDirectory.resolve("src/test/java/" + aPackagePath + "/MainTest.java"), ""
+				+ "package " + theProjectName + ";\n"
+				+ "\n"
+				+ "public class MainTest {\n"
+				+ "}\n");
+	}
+
+	private static void write(Path theFile, String theContent) throws IOException {
+		Files.createDirectories(theFile.getParent());
+		Files.write(theFile, theContent.getBytes(StandardCharsets.UTF_8));
+	}
+}
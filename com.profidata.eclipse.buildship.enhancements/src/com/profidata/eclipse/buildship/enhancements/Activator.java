@@ -2,13 +2,17 @@ package com.profidata.eclipse.buildship.enhancements;
 
 import org.osgi.framework.BundleContext;
 
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
 
+import com.profidata.eclipse.project.model.monitor.AsynchronousLog;
+
 public class Activator extends Plugin {
 
     private static BundleContext context;
     private static Plugin instance;
+    private static volatile AsynchronousLog log;
 
 
     public Activator() {
@@ -26,6 +30,7 @@ public class Activator extends Plugin {
 	@Override
     public void start(BundleContext bundleContext) throws Exception {
 		Activator.context = bundleContext;
+		log = new AsynchronousLog(getLog(), bundleContext.getBundle().getSymbolicName());
 	}
 
 	/*
@@ -34,11 +39,16 @@ public class Activator extends Plugin {
 	 */
 	@Override
     public void stop(BundleContext bundleContext) throws Exception {
+		// statuses logged from now on are written directly, the queued ones by close
+		AsynchronousLog aLog = log;
+
+		log = null;
+		aLog.close();
 		Activator.context = null;
 	}
 
     public static void info(String theMessage) {
-        instance.getLog().log(new Status(Status.INFO, instance.getBundle().getSymbolicName(), theMessage, null));
+        log(new Status(Status.INFO, instance.getBundle().getSymbolicName(), theMessage, null));
     }
 
 
@@ -47,6 +57,20 @@ public class Activator extends Plugin {
     }
 
     public static void error(String theMessage, Throwable theException) {
-        instance.getLog().log(new Status(Status.ERROR, instance.getBundle().getSymbolicName(), theMessage, theException));
+        log(new Status(Status.ERROR, instance.getBundle().getSymbolicName(), theMessage, theException));
+    }
+
+    /**
+     * Logs the status asynchronously while the bundle is active.
+     */
+    public static void log(IStatus theStatus) {
+        AsynchronousLog aLog = log;
+
+        if (aLog != null) {
+            aLog.log(theStatus);
+        }
+        else {
+            instance.getLog().log(theStatus);
+        }
     }
 }
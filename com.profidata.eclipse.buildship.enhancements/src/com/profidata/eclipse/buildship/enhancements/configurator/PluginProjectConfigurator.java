@@ -0,0 +1,200 @@
+package com.profidata.eclipse.buildship.enhancements.configurator;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.buildship.core.InitializationContext;
+import org.eclipse.buildship.core.ProjectConfigurator;
+import org.eclipse.buildship.core.ProjectContext;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.JavaCore;
+import org.gradle.tooling.model.eclipse.EclipseProject;
+import org.gradle.tooling.model.eclipse.EclipseSourceDirectory;
+
+import com.google.common.collect.ImmutableList;
+import com.profidata.eclipse.buildship.enhancements.Activator;
+import com.profidata.eclipse.buildship.enhancements.synchronization.BuildshipInternals;
+import com.profidata.eclipse.buildship.enhancements.synchronization.FixMode;
+import com.profidata.eclipse.buildship.enhancements.synchronization.SynchronizationBatch;
+import com.profidata.eclipse.buildship.enhancements.synchronization.SynchronizationEngine;
+import com.profidata.eclipse.buildship.enhancements.synchronization.SynchronizedProjectFixer;
+import com.profidata.eclipse.project.model.ProjectConstants;
+import com.profidata.eclipse.project.model.ProjectWrapper;
+import com.profidata.eclipse.project.model.fix.IgnoreProjectFolder;
+import com.profidata.eclipse.project.model.monitor.SynchronizationPhase;
+import com.profidata.eclipse.project.model.monitor.SynchronizationReport;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics.Span;
+
+/**
+ * Fixes the synchronized projects through Buildship's public <code>projectconfigurators</code> extension point
+ * instead of the woven aspects (system property <code>extension.buildship.engine=configurator</code>). The
+ * configurator runs after Buildship's own configuration of a project, so it reverts what Buildship must not apply to a
+ * plugin project (Gradle nature, Gradle classpath container and test source folders) before the project is fixed.
+ * <p>
+ * Unlike the aspects, which skip Buildship's configuration of a plugin project completely, the configurator keeps
+ * the rest of it: the output folder, the Java compiler settings, the Buildship preferences and the attributes of the
+ * main source folders are the ones derived from the Gradle build. They do not affect how PDE builds and resolves the
+ * plugin, which only depends on the plugin classpath container, the manifest and the source folders. Reverting them
+ * would mean to reimplement Buildship's configuration, which the public extension point is meant to avoid.
+ * <p>
+ * The Gradle models of the build and its included builds are taken from Buildship's model cache filled by the running
+ * synchronization. Only if the cache is not available the model of the root build is loaded again, the projects of
+ * included builds are not fixed then.
+ */
+public class PluginProjectConfigurator implements ProjectConfigurator {
+	private final FixMode fixMode;
+	private final SynchronizedProjectFixer projectFixer;
+	// project location -> Gradle project of the synchronized build
+	private final Map<File, EclipseProject> gradleProjects = new HashMap<>();
+	private SynchronizationBatch synchronizationBatch;
+
+	public PluginProjectConfigurator() {
+		boolean isAbsoluteSourcePath = Boolean.valueOf(System.getProperty("extension.buildship.absolute.source.path", "false"));
+
+		fixMode = FixMode.fromSystemProperty();
+		projectFixer = new SynchronizedProjectFixer(isAbsoluteSourcePath);
+	}
+
+	@Override
+	public void init(InitializationContext theContext, IProgressMonitor theMonitor) {
+		gradleProjects.clear();
+		synchronizationBatch = null;
+
+		if (!SynchronizationEngine.CONFIGURATOR.isActive()) {
+			return;
+		}
+
+		Span aSynchronizationSpan = SynchronizationStatistics.start(SynchronizationPhase.SYNCHRONIZATION, null);
+
+		Collection<EclipseProject> allGradleBuilds = BuildshipInternals.findCachedModels(theContext.getGradleBuild(), EclipseProject.class, theMonitor);
+
+		if (allGradleBuilds == null) {
+			try {
+				allGradleBuilds = Collections.singletonList(theContext.getGradleBuild().withConnection(theConnection -> theConnection.getModel(EclipseProject.class), theMonitor));
+			}
+			catch (Exception theCause) {
+				theContext.error("Failed to load the Eclipse model of the Gradle build", theCause);
+				aSynchronizationSpan.close();
+				return;
+			}
+		}
+		allGradleBuilds.forEach(this::addGradleProjects);
+
+		if (fixMode != FixMode.INLINE) {
+			synchronizationBatch = new SynchronizationBatch();
+		}
+		scheduleSynchronizationEnd(synchronizationBatch, aSynchronizationSpan);
+	}
+
+	@Override
+	public void configure(ProjectContext theContext, IProgressMonitor theMonitor) {
+		IProject aWorkspaceProject = theContext.getProject();
+		EclipseProject aGradleProject = aWorkspaceProject.getLocation() != null ? gradleProjects.get(aWorkspaceProject.getLocation().toFile()) : null;
+
+		if (aGradleProject == null) {
+			if (SynchronizationEngine.CONFIGURATOR.isActive()) {
+				Activator.error("No Gradle model found for project " + aWorkspaceProject.getName() + " -> project is not fixed");
+				SynchronizationReport.recordSkipped(SynchronizationPhase.FIX_SYNCHRONIZED_PROJECT, aWorkspaceProject.getName(), "no Gradle model");
+			}
+			return;
+		}
+
+		List<EclipseSourceDirectory> allSourceDirectories = ImmutableList.copyOf(aGradleProject.getSourceDirectories());
+		ProjectWrapper aProjectWrapper = ProjectWrapper.of(aWorkspaceProject);
+
+		// Ignore the gradle build folder for all projects because Eclipse IDE is not interested in these folders and their content
+		try (Span aSpan = SynchronizationStatistics.start(SynchronizationPhase.IGNORE_PROJECT_FOLDER, aWorkspaceProject.getName())) {
+			IgnoreProjectFolder.run(aWorkspaceProject, "target");
+		}
+
+		if (aProjectWrapper.hasNature(ProjectConstants.PLUGIN_NATURE_ID)) {
+			revertGradleConfiguration(aProjectWrapper, allSourceDirectories);
+		}
+
+		if (synchronizationBatch != null) {
+			synchronizationBatch.add(aWorkspaceProject, aGradleProject.getName(), allSourceDirectories);
+		}
+		else {
+			projectFixer.fix(aWorkspaceProject, aGradleProject.getName(), allSourceDirectories);
+		}
+	}
+
+	@Override
+	public void unconfigure(ProjectContext theContext, IProgressMonitor theMonitor) {
+		// a removed project keeps its fixed definition
+	}
+
+	private void addGradleProjects(EclipseProject theGradleProject) {
+		gradleProjects.put(theGradleProject.getProjectDirectory(), theGradleProject);
+		theGradleProject.getChildren().forEach(this::addGradleProjects);
+	}
+
+	/**
+	 * Plugin projects get their dependencies by the plugin classpath container and their tests by the test fragment.
+	 */
+	private static void revertGradleConfiguration(ProjectWrapper theProjectWrapper, List<EclipseSourceDirectory> theSourceDirectories) {
+		theProjectWrapper.removeNature(ProjectConstants.GRADLE_NATURE_ID);
+
+		if (theProjectWrapper.hasNature(JavaCore.NATURE_ID)) {
+			IPath aProjectPath = theProjectWrapper.getProject().getFullPath();
+
+			theProjectWrapper.asJavaProject().removeClasspathEntry(ProjectConstants.GRADLE_CLASSPATH);
+			SynchronizedProjectFixer.onlyTestSourceDirectories(theSourceDirectories)
+					.forEach(theTestSourceDirectory -> theProjectWrapper.removeClasspathEntry(aProjectPath.append(theTestSourceDirectory.getPath())));
+		}
+
+		if (theProjectWrapper.hasError()) {
+			Activator.error(theProjectWrapper.getErrorMessage());
+		}
+	}
+
+	/**
+	 * The job is blocked by the workspace rule of the running synchronization, so it runs once all projects have been
+	 * configured. It fixes the recorded projects of the batch, if any, and closes the span of the synchronization once
+	 * all projects have been fixed.
+	 */
+	private void scheduleSynchronizationEnd(SynchronizationBatch theBatch, Span theSynchronizationSpan) {
+		WorkspaceJob aBatchJob = new WorkspaceJob("Fix synchronized projects") {
+
+			@Override
+			public IStatus runInWorkspace(IProgressMonitor theMonitor) {
+				// closed by the last fix job in parallel fix mode
+				boolean isSpanPassed = false;
+
+				try {
+					// without a batch the projects have been fixed inline while they were configured
+					if (theBatch != null) {
+						if (fixMode == FixMode.PARALLEL) {
+							isSpanPassed = true;
+							theBatch.schedule(projectFixer, theSynchronizationSpan);
+						}
+						else {
+							theBatch.run(projectFixer);
+						}
+					}
+				}
+				finally {
+					if (!isSpanPassed) {
+						theSynchronizationSpan.close();
+					}
+				}
+				return Status.OK_STATUS;
+			}
+		};
+
+		aBatchJob.setRule(ResourcesPlugin.getWorkspace().getRoot());
+		aBatchJob.setSystem(true);
+		aBatchJob.schedule();
+	}
+}
@@ -0,0 +1,222 @@
+package com.profidata.eclipse.buildship.enhancements.synchronization;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.buildship.core.GradleBuild;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.CancellationTokenSource;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.model.eclipse.EclipseSourceDirectory;
+
+import com.google.common.collect.ImmutableList;
+import com.profidata.eclipse.buildship.enhancements.Activator;
+import com.profidata.eclipse.project.model.monitor.SynchronizationPhase;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics.Span;
+
+/**
+ * Access to the internal Buildship entry points which are not part of its API. Each entry point is resolved once for
+ * the installed Buildship version, if it cannot be resolved the error is reported once and the calls are ignored.
+ */
+public final class BuildshipInternals {
+	// package of the Buildship 3 internals first, then the one of older versions
+	private static final List<String> SOURCE_FOLDER_UPDATER_CLASSES = Arrays.asList(
+			"org.eclipse.buildship.core.internal.workspace.SourceFolderUpdater",
+			"org.eclipse.buildship.core.workspace.internal.SourceFolderUpdater");
+
+	private static final String INTERNAL_GRADLE_BUILD_CLASS = "org.eclipse.buildship.core.internal.workspace.InternalGradleBuild";
+	private static final String MODEL_PROVIDER_CLASS = "org.eclipse.buildship.core.internal.workspace.ModelProvider";
+	private static final String FETCH_STRATEGY_CLASS = "org.eclipse.buildship.core.internal.workspace.FetchStrategy";
+
+	private static final MethodHandle SOURCE_FOLDER_UPDATER_UPDATE = resolveSourceFolderUpdater();
+
+	/**
+	 * Reads the models from the cache of Buildship's model provider, which holds the models loaded by the running
+	 * synchronization. Resolved on first use, so the aspects engine does not depend on it.
+	 */
+	private static final class ModelCache {
+		private static final ModelCache INSTANCE = resolve();
+
+		private final Class<?> gradleBuildClass;
+		private final MethodHandle getModelProvider;
+		private final MethodHandle fetchModels;
+		private final Object fromCacheOnly;
+		private final boolean isTokenSourceParameter;
+
+		private ModelCache(Class<?> theGradleBuildClass, MethodHandle theGetModelProvider, MethodHandle theFetchModels, Object theFromCacheOnly, boolean theTokenSourceParameter) {
+			gradleBuildClass = theGradleBuildClass;
+			getModelProvider = theGetModelProvider;
+			fetchModels = theFetchModels;
+			fromCacheOnly = theFromCacheOnly;
+			isTokenSourceParameter = theTokenSourceParameter;
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		static ModelCache resolve() {
+			try {
+				ClassLoader aClassLoader = BuildshipInternals.class.getClassLoader();
+				Class<?> aGradleBuildClass = aClassLoader.loadClass(INTERNAL_GRADLE_BUILD_CLASS);
+				Class<?> aModelProviderClass = aClassLoader.loadClass(MODEL_PROVIDER_CLASS);
+				Class<? extends Enum> aFetchStrategyClass = (Class<? extends Enum>) aClassLoader.loadClass(FETCH_STRATEGY_CLASS);
+
+				for (Method aMethod : aModelProviderClass.getMethods()) {
+					Class<?>[] someParameterTypes = aMethod.getParameterTypes();
+
+					if (aMethod.getName().equals("fetchModels")
+							&& someParameterTypes.length == 4
+							&& someParameterTypes[0] == Class.class
+							&& someParameterTypes[1] == aFetchStrategyClass
+							&& (someParameterTypes[2] == CancellationTokenSource.class || someParameterTypes[2] == CancellationToken.class)
+							&& someParameterTypes[3] == IProgressMonitor.class) {
+						return new ModelCache(
+								aGradleBuildClass,
+								MethodHandles.lookup().unreflect(aGradleBuildClass.getMethod("getModelProvider")),
+								MethodHandles.lookup().unreflect(aMethod),
+								Enum.valueOf(aFetchStrategyClass, "FROM_CACHE_ONLY"),
+								someParameterTypes[2] == CancellationTokenSource.class);
+					}
+				}
+				Activator.error("Buildship internals not supported, " + MODEL_PROVIDER_CLASS + " has no method fetchModels(Class, FetchStrategy, CancellationToken, IProgressMonitor)"
+						+ " -> the Gradle models are loaded again by the project configurator");
+			}
+			catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | RuntimeException theCause) {
+				Activator.error("Buildship internals not accessible: " + MODEL_PROVIDER_CLASS + " -> the Gradle models are loaded again by the project configurator", theCause);
+			}
+			return null;
+		}
+
+		/**
+		 * @return the cached models of all builds, <code>null</code> if they are not cached
+		 */
+		<T> Collection<T> fetchModels(GradleBuild theGradleBuild, Class<T> theModelType, IProgressMonitor theMonitor) throws Throwable {
+			if (!gradleBuildClass.isInstance(theGradleBuild)) {
+				return null;
+			}
+
+			CancellationTokenSource aTokenSource = GradleConnector.newCancellationTokenSource();
+			Object aModelProvider = getModelProvider.invoke(theGradleBuild);
+			Object aModels = fetchModels.invoke(aModelProvider, theModelType, fromCacheOnly, isTokenSourceParameter ? aTokenSource : aTokenSource.token(), theMonitor);
+
+			// a collection of the root models of the included builds, newer versions map the builds by their path
+			if (aModels instanceof Map) {
+				aModels = ((Map<?, ?>) aModels).values();
+			}
+			if (aModels instanceof Collection && !((Collection<?>) aModels).isEmpty()) {
+				return ((Collection<?>) aModels).stream().map(theModelType::cast).collect(Collectors.toList());
+			}
+			return null;
+		}
+	}
+
+	private BuildshipInternals() {
+		// prevent from being instantiated
+	}
+
+	/**
+	 * Updates the source folders of the given project by Buildship's <code>SourceFolderUpdater</code>.
+	 */
+	public static void updateSourceFolders(IJavaProject theProject, List<EclipseSourceDirectory> theSourceDirectories, IProgressMonitor theMonitor) throws JavaModelException {
+		if (SOURCE_FOLDER_UPDATER_UPDATE == null) {
+			return;
+		}
+
+		try (Span aSpan = SynchronizationStatistics.start(SynchronizationPhase.SOURCE_FOLDER_UPDATE, theProject.getElementName())) {
+			SOURCE_FOLDER_UPDATER_UPDATE.invoke(theProject, ImmutableList.copyOf(theSourceDirectories), theMonitor);
+		}
+		catch (JavaModelException | RuntimeException | Error theCause) {
+			throw theCause;
+		}
+		catch (Throwable theCause) {
+			Activator.error("Failed to update source folders of project " + theProject.getElementName() + ": " + theCause.getLocalizedMessage(), theCause);
+		}
+	}
+
+	/**
+	 * Updates the source folders of all given projects, a failing project does not prevent the others from being
+	 * updated.
+	 */
+	public static void updateSourceFolders(Map<IJavaProject, List<EclipseSourceDirectory>> theSourceDirectories, IProgressMonitor theMonitor) {
+		SubMonitor aMonitor = SubMonitor.convert(theMonitor, theSourceDirectories.size());
+
+		theSourceDirectories.forEach((theProject, theProjectSourceDirectories) -> {
+			try {
+				updateSourceFolders(theProject, theProjectSourceDirectories, aMonitor.split(1));
+			}
+			catch (JavaModelException theCause) {
+				Activator.error("Failed to update source folders of  plugin project " + theProject.getElementName() + ": " + theCause.getLocalizedMessage());
+			}
+		});
+	}
+
+	/**
+	 * Gets the models of the build and all its included builds which Buildship has loaded for the running
+	 * synchronization, so the models need not be loaded again.
+	 *
+	 * @return the root models of all builds or <code>null</code> if they are not available from the cache
+	 */
+	public static <T> Collection<T> findCachedModels(GradleBuild theGradleBuild, Class<T> theModelType, IProgressMonitor theMonitor) {
+		if (ModelCache.INSTANCE == null) {
+			return null;
+		}
+
+		try {
+			return ModelCache.INSTANCE.fetchModels(theGradleBuild, theModelType, theMonitor);
+		}
+		catch (Throwable theCause) {
+			Activator.error("Failed to get the cached " + theModelType.getSimpleName() + " models: " + theCause.getLocalizedMessage(), theCause);
+			return null;
+		}
+	}
+
+	private static MethodHandle resolveSourceFolderUpdater() {
+		for (String aClassName : SOURCE_FOLDER_UPDATER_CLASSES) {
+			try {
+				Class<?> aSourceFolderUpdaterClass = BuildshipInternals.class.getClassLoader().loadClass(aClassName);
+
+				for (Method aMethod : aSourceFolderUpdaterClass.getDeclaredMethods()) {
+					if (isSourceFolderUpdate(aMethod)) {
+						aMethod.setAccessible(true);
+						return MethodHandles.lookup().unreflect(aMethod);
+					}
+				}
+				Activator.error("Buildship internals not supported, " + aClassName + " has no method update(IJavaProject, List, IProgressMonitor): "
+						+ Arrays.stream(aSourceFolderUpdaterClass.getDeclaredMethods()).map(Method::toGenericString).collect(Collectors.joining(", "))
+						+ " -> source folders of plugin projects are not updated");
+				return null;
+			}
+			catch (ClassNotFoundException theCause) {
+				// try the class of the next Buildship version
+			}
+			catch (IllegalAccessException | RuntimeException theCause) {
+				Activator.error("Buildship internals not accessible: " + aClassName + " -> source folders of plugin projects are not updated", theCause);
+				return null;
+			}
+		}
+
+		Activator.error("Buildship internals not supported, none of the classes found: " + SOURCE_FOLDER_UPDATER_CLASSES + " -> source folders of plugin projects are not updated");
+		return null;
+	}
+
+	private static boolean isSourceFolderUpdate(Method theMethod) {
+		Class<?>[] someParameterTypes = theMethod.getParameterTypes();
+
+		return theMethod.getName().equals("update")
+				&& Modifier.isStatic(theMethod.getModifiers())
+				&& someParameterTypes.length == 3
+				&& someParameterTypes[0] == IJavaProject.class
+				&& someParameterTypes[1] == List.class
+				&& someParameterTypes[2] == IProgressMonitor.class;
+	}
+}
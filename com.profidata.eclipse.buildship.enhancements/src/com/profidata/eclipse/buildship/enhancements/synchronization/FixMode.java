@@ -0,0 +1,41 @@
+package com.profidata.eclipse.buildship.enhancements.synchronization;
+
+import java.util.Locale;
+
+import com.profidata.eclipse.buildship.enhancements.Activator;
+
+/**
+ * Defines when the projects are fixed during a Gradle synchronization. The mode is configured by the system
+ * property <code>extension.buildship.fix.mode</code>.
+ */
+public enum FixMode {
+	/**
+	 * Each project is fixed directly after it has been synchronized.
+	 */
+	INLINE,
+
+	/**
+	 * The synchronized projects are only recorded and fixed together once the whole synchronization has finished.
+	 */
+	DEFERRED,
+
+	/**
+	 * The synchronized projects are only recorded and fixed by parallel jobs after the synchronization has released
+	 * its scheduling rule. Each job only locks the project and its test fragment.
+	 */
+	PARALLEL;
+
+	public static final String SYSTEM_PROPERTY = "extension.buildship.fix.mode";
+
+	public static FixMode fromSystemProperty() {
+		String aFixMode = System.getProperty(SYSTEM_PROPERTY, INLINE.name());
+
+		try {
+			return FixMode.valueOf(aFixMode.trim().toUpperCase(Locale.ROOT));
+		}
+		catch (IllegalArgumentException theCause) {
+			Activator.error("Unknown value '" + aFixMode + "' of system property " + SYSTEM_PROPERTY + " -> using " + INLINE.name());
+			return INLINE;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package com.profidata.eclipse.buildship.enhancements.synchronization;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobChangeListener;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.gradle.tooling.model.eclipse.EclipseSourceDirectory;
+
+import com.profidata.eclipse.buildship.enhancements.Activator;
+import com.profidata.eclipse.project.model.fix.TestFragmentCreator;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics.Span;
+
+/**
+ * Records the projects of one Gradle synchronization and fixes all of them after the synchronization has finished,
+ * either at once in a single workspace operation or by parallel jobs.
+ */
+public class SynchronizationBatch {
+	private static final String MAX_THREADS_PROPERTY = "extension.buildship.fix.threads";
+
+	private static class SynchronizedProject {
+		private final IProject workspaceProject;
+		private final String gradleProjectName;
+		private final List<EclipseSourceDirectory> sourceDirectories;
+		private final boolean isSourceFolderUpdateNeeded;
+
+		SynchronizedProject(IProject theWorkspaceProject, String theGradleProjectName, List<EclipseSourceDirectory> theSourceDirectories, boolean theSourceFolderUpdateNeeded) {
+			workspaceProject = theWorkspaceProject;
+			gradleProjectName = theGradleProjectName;
+			sourceDirectories = theSourceDirectories;
+			isSourceFolderUpdateNeeded = theSourceFolderUpdateNeeded;
+		}
+	}
+
+	private final Map<String, SynchronizedProject> synchronizedProjects = new LinkedHashMap<>();
+
+	public void add(IProject theWorkspaceProject, String theGradleProjectName, List<EclipseSourceDirectory> theSourceDirectories) {
+		add(theWorkspaceProject, theGradleProjectName, theSourceDirectories, false);
+	}
+
+	/**
+	 * @param theSourceFolderUpdateNeeded
+	 *            <code>true</code> if the source folders of the plugin project still have to be updated by Buildship
+	 *            before the project is fixed
+	 */
+	public void add(IProject theWorkspaceProject, String theGradleProjectName, List<EclipseSourceDirectory> theSourceDirectories, boolean theSourceFolderUpdateNeeded) {
+		synchronizedProjects.put(
+				theWorkspaceProject.getName(),
+				new SynchronizedProject(theWorkspaceProject, theGradleProjectName, theSourceDirectories, theSourceFolderUpdateNeeded));
+	}
+
+	public boolean isEmpty() {
+		return synchronizedProjects.isEmpty();
+	}
+
+	/**
+	 * Fixes all projects in a single workspace operation, so only one resource delta and one auto build results from
+	 * them.
+	 */
+	public void run(SynchronizedProjectFixer theFixer) {
+		if (isEmpty()) {
+			return;
+		}
+
+		try {
+			IWorkspace aWorkspace = ResourcesPlugin.getWorkspace();
+
+			aWorkspace.run(theMonitor -> {
+				updateSourceFolders(synchronizedProjects.values(), theMonitor);
+				synchronizedProjects.values().forEach(theProject -> fix(theFixer, theProject));
+			}, aWorkspace.getRoot(), IWorkspace.AVOID_UPDATE, null);
+		}
+		catch (CoreException theCause) {
+			Activator.error("Failed to fix synchronized projects: " + theCause.getLocalizedMessage(), theCause);
+		}
+	}
+
+	/**
+	 * Fixes the projects by jobs running in parallel on a bounded number of threads (system property
+	 * <code>extension.buildship.fix.threads</code>, default is the number of processors). Each job only holds the
+	 * scheduling rules of the project and its test fragment, so the jobs start as soon as the synchronization has
+	 * released the workspace.
+	 *
+	 * @param theSynchronizationSpan
+	 *            the span of the synchronization, it is closed when the last job has finished
+	 */
+	public void schedule(SynchronizedProjectFixer theFixer, Span theSynchronizationSpan) {
+		if (isEmpty()) {
+			theSynchronizationSpan.close();
+			return;
+		}
+
+		int aMaxThreads = Math.max(1, Integer.getInteger(MAX_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+		JobGroup aJobGroup = new JobGroup("Fix synchronized projects", aMaxThreads, synchronizedProjects.size());
+		AtomicInteger aRemainingJobCount = new AtomicInteger(synchronizedProjects.size());
+		// also notified about cancelled jobs
+		IJobChangeListener aJobFinishedListener = new JobChangeAdapter() {
+
+			@Override
+			public void done(IJobChangeEvent theEvent) {
+				if (aRemainingJobCount.decrementAndGet() == 0) {
+					theSynchronizationSpan.close();
+				}
+			}
+		};
+
+		for (SynchronizedProject aProject : synchronizedProjects.values()) {
+			WorkspaceJob aFixJob = new WorkspaceJob("Fix project " + aProject.workspaceProject.getName()) {
+
+				@Override
+				public IStatus runInWorkspace(IProgressMonitor theMonitor) {
+					updateSourceFolders(Collections.singleton(aProject), theMonitor);
+					fix(theFixer, aProject);
+					return Status.OK_STATUS;
+				}
+			};
+
+			aFixJob.setRule(getFixRule(aProject.workspaceProject));
+			aFixJob.setSystem(true);
+			aFixJob.setJobGroup(aJobGroup);
+			aFixJob.addJobChangeListener(aJobFinishedListener);
+			aFixJob.schedule();
+		}
+	}
+
+	private ISchedulingRule getFixRule(IProject theProject) {
+		IWorkspace aWorkspace = theProject.getWorkspace();
+		IResourceRuleFactory aRuleFactory = aWorkspace.getRuleFactory();
+		IProject aTestProject = aWorkspace.getRoot().getProject(TestFragmentCreator.getTestProjectName(theProject));
+
+		return MultiRule.combine(new ISchedulingRule[] {
+				aRuleFactory.modifyRule(theProject),
+				aRuleFactory.refreshRule(theProject),
+				aRuleFactory.createRule(aTestProject),
+				aRuleFactory.modifyRule(aTestProject),
+				aRuleFactory.refreshRule(aTestProject) });
+	}
+
+	private void updateSourceFolders(Collection<SynchronizedProject> theProjects, IProgressMonitor theMonitor) {
+		Map<IJavaProject, List<EclipseSourceDirectory>> allSourceDirectories = new LinkedHashMap<>();
+
+		for (SynchronizedProject aProject : theProjects) {
+			if (aProject.isSourceFolderUpdateNeeded && aProject.workspaceProject.isOpen()) {
+				allSourceDirectories.put(JavaCore.create(aProject.workspaceProject), SynchronizedProjectFixer.withoutTestSourceDirectories(aProject.sourceDirectories));
+			}
+		}
+		if (!allSourceDirectories.isEmpty()) {
+			BuildshipInternals.updateSourceFolders(allSourceDirectories, theMonitor);
+		}
+	}
+
+	private void fix(SynchronizedProjectFixer theFixer, SynchronizedProject theProject) {
+		theFixer.fix(theProject.workspaceProject, theProject.gradleProjectName, theProject.sourceDirectories);
+	}
+}
@@ -0,0 +1,42 @@
+package com.profidata.eclipse.buildship.enhancements.synchronization;
+
+import java.util.Locale;
+
+import com.profidata.eclipse.buildship.enhancements.Activator;
+
+/**
+ * Defines how the Gradle synchronization is enhanced. The engine is configured by the system property
+ * <code>extension.buildship.engine</code>.
+ */
+public enum SynchronizationEngine {
+	/**
+	 * The aspects woven into Buildship and the resources bundle at load time change the synchronization itself.
+	 */
+	ASPECTS,
+
+	/**
+	 * A project configurator registered at Buildship's public extension point fixes the projects after Buildship has
+	 * configured them. Only the aspect handling the launch configuration classpath providers is still woven.
+	 */
+	CONFIGURATOR;
+
+	public static final String SYSTEM_PROPERTY = "extension.buildship.engine";
+
+	private static final SynchronizationEngine ACTIVE_ENGINE = fromSystemProperty();
+
+	public boolean isActive() {
+		return this == ACTIVE_ENGINE;
+	}
+
+	public static SynchronizationEngine fromSystemProperty() {
+		String aEngine = System.getProperty(SYSTEM_PROPERTY, ASPECTS.name());
+
+		try {
+			return SynchronizationEngine.valueOf(aEngine.trim().toUpperCase(Locale.ROOT));
+		}
+		catch (IllegalArgumentException theCause) {
+			Activator.error("Unknown value '" + aEngine + "' of system property " + SYSTEM_PROPERTY + " -> using " + ASPECTS.name());
+			return ASPECTS;
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package com.profidata.eclipse.buildship.enhancements.synchronization;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.gradle.tooling.model.eclipse.EclipseSourceDirectory;
+
+import com.profidata.eclipse.buildship.enhancements.Activator;
+import com.profidata.eclipse.project.model.ProjectConstants;
+import com.profidata.eclipse.project.model.ProjectWrapper;
+import com.profidata.eclipse.project.model.fix.FixProjectDefinition;
+import com.profidata.eclipse.project.model.fix.ProjectFingerprint;
+import com.profidata.eclipse.project.model.fix.TestFragmentCreator;
+import com.profidata.eclipse.project.model.monitor.SynchronizationPhase;
+import com.profidata.eclipse.project.model.monitor.SynchronizationReport;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics.Span;
+
+/**
+ * Fixes a workspace project after it has been synchronized with its Gradle project.
+ */
+public class SynchronizedProjectFixer {
+	private static final List<String> TEST_TYPES = Arrays.asList("test", "integration", "manual", "moduleTest");
+
+	private final boolean isAbsoluteSourcePath;
+
+	public SynchronizedProjectFixer(boolean theAbsoluteSourcePath) {
+		isAbsoluteSourcePath = theAbsoluteSourcePath;
+	}
+
+	/**
+	 * Fixes a synchronized project whose definition has not yet been fixed, the project is skipped if it has been
+	 * closed in the meantime.
+	 */
+	public void fix(IProject theWorkspaceProject, String theGradleProjectName, List<EclipseSourceDirectory> theSourceDirectories) {
+		if (!theWorkspaceProject.isOpen()) {
+			SynchronizationReport.recordSkipped(SynchronizationPhase.FIX_SYNCHRONIZED_PROJECT, theWorkspaceProject.getName(), "closed");
+			return;
+		}
+
+		try {
+			ProjectWrapper aProjectWrapper = ProjectWrapper.of(theWorkspaceProject);
+
+			if (aProjectWrapper.hasNature(JavaCore.NATURE_ID)) {
+				aProjectWrapper.asJavaProject();
+			}
+			fix(aProjectWrapper, theGradleProjectName, theSourceDirectories, true, createFingerprint(theWorkspaceProject, theSourceDirectories));
+		}
+		catch (RuntimeException theCause) {
+			Activator.error("Failed to fix synchronized project " + theWorkspaceProject.getName() + ": " + theCause.getLocalizedMessage(), theCause);
+		}
+	}
+
+	/**
+	 * @param theProjectWrapper
+	 *            the synchronized workspace project
+	 * @param theGradleProjectName
+	 *            the name of the Gradle project
+	 * @param theSourceDirectories
+	 *            the source directories defined by the Gradle project
+	 * @param theFixProjectDefinition
+	 *            <code>true</code> if the project definition has not yet been fixed
+	 * @param theFingerprint
+	 *            the fingerprint of the project created by {@link #createFingerprint(IProject, List)}
+	 */
+	public void fix(ProjectWrapper theProjectWrapper, String theGradleProjectName, List<EclipseSourceDirectory> theSourceDirectories, boolean theFixProjectDefinition, ProjectFingerprint theFingerprint) {
+		try (Span aSpan = SynchronizationStatistics.start(SynchronizationPhase.FIX_SYNCHRONIZED_PROJECT, theProjectWrapper.getProject().getName())) {
+			fixProject(theProjectWrapper, theGradleProjectName, theSourceDirectories, theFixProjectDefinition, theFingerprint);
+		}
+	}
+
+	private void fixProject(ProjectWrapper theProjectWrapper, String theGradleProjectName, List<EclipseSourceDirectory> theSourceDirectories, boolean theFixProjectDefinition, ProjectFingerprint theFingerprint) {
+		IProject aWorkspaceProject = theProjectWrapper.getProject();
+		boolean isTestFragmentFixed = true;
+
+		// nothing relevant changed since the project has been fixed the last time
+		if (theFingerprint.isUnchanged()) {
+			SynchronizationReport.recordSkipped(SynchronizationPhase.FIX_SYNCHRONIZED_PROJECT, aWorkspaceProject.getName(), "unchanged");
+			return;
+		}
+
+		// All classpath modifications after the synchronization are written at once
+		if (theProjectWrapper.hasNature(JavaCore.NATURE_ID)) {
+			theProjectWrapper.asJavaProject().beginClasspathChanges();
+
+			if (theFixProjectDefinition) {
+				// The java plugin project was new and therefore has not yet been fixed
+				try (Span aSpan = SynchronizationStatistics.start(SynchronizationPhase.FIX_PROJECT_DEFINITION, aWorkspaceProject.getName())) {
+					FixProjectDefinition.run(theProjectWrapper, !theProjectWrapper.hasNature(ProjectConstants.PLUGIN_NATURE_ID));
+				}
+			}
+		}
+
+		// When a new project is imported, the plugin nature has not been set initially and therefore the proceed method has been executed
+		if (theProjectWrapper.hasNature(ProjectConstants.PLUGIN_NATURE_ID)) {
+			// if for any reason the gradle classpath container has already been added it will now be removed again.
+			theProjectWrapper.removeClasspathEntry(ProjectConstants.GRADLE_CLASSPATH);
+		}
+		theProjectWrapper.commitClasspathChanges();
+
+		// check if there are folders containing test classes generate corresponding fragment for it.
+		if (theProjectWrapper.hasNature(ProjectConstants.PLUGIN_NATURE_ID) && !theGradleProjectName.endsWith("-integration")) {
+			try (Span aSpan = SynchronizationStatistics.start(SynchronizationPhase.TEST_FRAGMENT_CREATION, aWorkspaceProject.getName())) {
+				isTestFragmentFixed = TestFragmentCreator.run(aWorkspaceProject, TEST_TYPES, isAbsoluteSourcePath, onlyTestClasspathEntries(aWorkspaceProject, theSourceDirectories));
+			}
+		}
+		else {
+			SynchronizationReport.recordSkipped(SynchronizationPhase.TEST_FRAGMENT_CREATION, aWorkspaceProject.getName(), "no plugin project or integration project");
+		}
+
+		if (theProjectWrapper.hasError()) {
+			Activator.error(theProjectWrapper.getErrorMessage());
+		}
+		// a failed test fragment has to be fixed again by the next synchronization
+		else if (isTestFragmentFixed) {
+			theFingerprint.store();
+		}
+	}
+
+	/**
+	 * @return the fingerprint deciding whether anything relevant for the fixes changed since the project has been fixed
+	 *         the last time
+	 */
+	public ProjectFingerprint createFingerprint(IProject theWorkspaceProject, List<EclipseSourceDirectory> theSourceDirectories) {
+		return new ProjectFingerprint(theWorkspaceProject, getPaths(theSourceDirectories), isAbsoluteSourcePath);
+	}
+
+	public static List<EclipseSourceDirectory> onlyTestSourceDirectories(List<EclipseSourceDirectory> theSourceDirectories) {
+		return theSourceDirectories.stream()
+				.filter(theSourceDirectory -> !isSourceDirectory(theSourceDirectory))
+				.collect(Collectors.toList());
+	}
+
+	public static List<EclipseSourceDirectory> withoutTestSourceDirectories(List<EclipseSourceDirectory> theSourceDirectories) {
+		return theSourceDirectories.stream()
+				.filter(theSourceDirectory -> isSourceDirectory(theSourceDirectory))
+				.collect(Collectors.toList());
+	}
+
+	private static List<String> getPaths(List<EclipseSourceDirectory> theSourceDirectories) {
+		return theSourceDirectories.stream()
+				.map(EclipseSourceDirectory::getPath)
+				.collect(Collectors.toList());
+	}
+
+	private static List<IClasspathEntry> onlyTestClasspathEntries(IProject theWorkspaceProject, List<EclipseSourceDirectory> theSourceDirectories) {
+		return theSourceDirectories.stream()
+				.filter(theSourceDirectory -> !isSourceDirectory(theSourceDirectory))
+				.map(theTestSourceDirectory -> theWorkspaceProject.getFullPath().append(theTestSourceDirectory.getPath()))
+				.map(thePath -> JavaCore.newSourceEntry(thePath))
+				.collect(Collectors.toList());
+	}
+
+	private static boolean isSourceDirectory(EclipseSourceDirectory theSourceDirectory) {
+		return theSourceDirectory.getPath().equals("src") || theSourceDirectory.getPath().equals("resources") || theSourceDirectory.getPath().startsWith("src/main")
+				|| theSourceDirectory.getPath().startsWith("src/generated");
+	}
+}
@@ -0,0 +1,20 @@
+package com.profidata.eclipse.enhancements;
+
+import org.osgi.framework.BundleContext;
+
+import org.eclipse.core.runtime.Plugin;
+
+import com.profidata.eclipse.enhancements.buildpath.SharedClasspathContainerInitializer;
+
+public class Activator extends Plugin {
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.osgi.framework.BundleActivator#stop(org.osgi.framework.BundleContext)
+	 */
+	@Override
+    public void stop(BundleContext bundleContext) throws Exception {
+		SharedClasspathContainerInitializer.disposeAll();
+		super.stop(bundleContext);
+	}
+}
@@ -1,20 +1,22 @@
 package com.profidata.eclipse.enhancements.buildpath;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.jdt.core.ClasspathContainerInitializer;
-import org.eclipse.jdt.core.IClasspathContainer;
 import org.eclipse.jdt.core.IClasspathEntry;
-import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.internal.junit.JUnitPreferencesConstants;
 import org.eclipse.jdt.internal.junit.buildpath.BuildPathSupport.JUnitPluginDescription;
 import org.eclipse.osgi.service.resolver.VersionRange;
 
-public class HamcrestContainerInitializer extends ClasspathContainerInitializer {
+/**
+ * Provides the Hamcrest libraries of the installation as classpath container.
+ */
+public class HamcrestContainerInitializer extends SharedClasspathContainerInitializer {
 
 	private static final JUnitPluginDescription HAMCREST_CORE_PLUGIN = new JUnitPluginDescription(
 			"org.hamcrest.core",
@@ -49,58 +51,22 @@ public class HamcrestContainerInitializer extends ClasspathContainerInitializer
 			"source-bundle/",
 			"");
 
-	private static class HamcrestContainer implements IClasspathContainer {
-
-		private final IClasspathEntry[] entries;
-		private final IPath path;
-
-		public HamcrestContainer(IPath thePath, IClasspathEntry[] theEntries) {
-			path = thePath;
-			entries = theEntries;
-		}
-
-		@Override
-		public IClasspathEntry[] getClasspathEntries() {
-			return entries;
-		}
-
-		@Override
-		public String getDescription() {
-			return "Hamcrest";
-		}
-
-		@Override
-		public int getKind() {
-			return IClasspathContainer.K_APPLICATION;
-		}
-
-		@Override
-		public IPath getPath() {
-			return path;
-		}
-
-	}
+	private static final List<JUnitPluginDescription> HAMCREST_PLUGINS = Arrays.asList(HAMCREST_CORE_PLUGIN, HAMCREST_GENERATOR_PLUGIN, HAMCREST_LIBRARY_PLUGIN, HAMCREST_TEXT_PLUGIN);
 
 	@Override
-	public void initialize(IPath theContainerPath, IJavaProject theProject) throws CoreException {
-		HamcrestContainer container = getNewContainer(theContainerPath);
-		JavaCore.setClasspathContainer(
-				theContainerPath,
-				new IJavaProject[] {
-						theProject },
-				new IClasspathContainer[] {
-						container },
-				null);
-	}
-
-	private HamcrestContainer getNewContainer(IPath theContainerPath) {
+	SharedClasspathContainer createContainer(IPath theContainerPath) {
 		List<IClasspathEntry> allEntries = new ArrayList<>();
-
-		allEntries.add(HAMCREST_CORE_PLUGIN.getLibraryEntry());
-		allEntries.add(HAMCREST_GENERATOR_PLUGIN.getLibraryEntry());
-		allEntries.add(HAMCREST_LIBRARY_PLUGIN.getLibraryEntry());
-		allEntries.add(HAMCREST_TEXT_PLUGIN.getLibraryEntry());
-
-		return new HamcrestContainer(theContainerPath, allEntries.toArray(new IClasspathEntry[allEntries.size()]));
+		Set<String> allBundleNames = new HashSet<>();
+
+		HAMCREST_PLUGINS.stream()
+				.map(JUnitPluginDescription::getLibraryEntry)
+				.filter(Objects::nonNull)
+				.forEach(allEntries::add);
+		HAMCREST_PLUGINS.forEach(thePlugin -> {
+			allBundleNames.add(thePlugin.getBundleId());
+			allBundleNames.add(thePlugin.getBundleId() + ".source");
+		});
+
+		return new SharedClasspathContainer(theContainerPath, "Hamcrest", allEntries.toArray(new IClasspathEntry[allEntries.size()]), allBundleNames);
 	}
 }
@@ -0,0 +1,160 @@
+package com.profidata.eclipse.enhancements.buildpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.ModelEntry;
+import org.eclipse.pde.core.plugin.PluginRegistry;
+import org.eclipse.pde.internal.core.IPluginModelListener;
+import org.eclipse.pde.internal.core.PDECore;
+import org.osgi.framework.Version;
+
+import com.profidata.eclipse.project.model.Activator;
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurationDefinitionProvider;
+
+/**
+ * Provides the bundles of a library container defined in the <code>libraryContainers</code> of the additional
+ * project configuration as classpath container <code>com.profidata.eclipse.LIBRARY_CONTAINER/&lt;name&gt;</code>
+ * (e.g. <code>"libraryContainers": { "assertj": [ "assertj-core" ] }</code>). The newest version of each bundle in
+ * the target platform is used, its source bundle is attached if the target platform contains it as well. The
+ * containers are resolved again when the library containers of the reloaded configuration file or the bundles of the
+ * target platform have been changed.
+ */
+public class LibraryContainerInitializer extends SharedClasspathContainerInitializer {
+
+	private static class LibraryContainer extends SharedClasspathContainer {
+		private final List<String> bundles;
+
+		LibraryContainer(IPath thePath, List<String> theBundles, IClasspathEntry[] theEntries) {
+			super(thePath, "Library " + thePath.lastSegment(), theEntries, getBundleNames(theBundles));
+
+			bundles = theBundles;
+		}
+
+		/**
+		 * @return the names of the bundles and their source bundles
+		 */
+		private static Set<String> getBundleNames(List<String> theBundles) {
+			Set<String> allBundleNames = new HashSet<>();
+
+			for (String aBundleName : theBundles) {
+				allBundleNames.add(aBundleName);
+				allBundleNames.add(aBundleName + ".source");
+			}
+			return allBundleNames;
+		}
+	}
+
+	// names of the undefined containers which have been reported already
+	private final Set<String> reportedUndefinedContainers = ConcurrentHashMap.newKeySet();
+	private final Runnable libraryContainersListener = () -> {
+		reportedUndefinedContainers.clear();
+		invalidate();
+	};
+	private final IPluginModelListener targetPlatformListener = theDelta -> {
+		Set<String> allChangedBundles = new HashSet<>();
+
+		for (ModelEntry[] someEntries : Arrays.asList(theDelta.getAddedEntries(), theDelta.getRemovedEntries(), theDelta.getChangedEntries())) {
+			Arrays.stream(someEntries).map(ModelEntry::getId).forEach(allChangedBundles::add);
+		}
+		invalidate(theContainer -> allChangedBundles.stream().anyMatch(theContainer::isResolvedFrom));
+	};
+
+	public LibraryContainerInitializer() {
+		AdditionalProjectConfigurationDefinitionProvider.addLibraryContainersListener(libraryContainersListener);
+		PDECore.getDefault().getModelManager().addPluginModelListener(targetPlatformListener);
+	}
+
+	@Override
+	void dispose() {
+		super.dispose();
+		AdditionalProjectConfigurationDefinitionProvider.removeLibraryContainersListener(libraryContainersListener);
+		PDECore.getDefault().getModelManager().removePluginModelListener(targetPlatformListener);
+	}
+
+	@Override
+	SharedClasspathContainer createContainer(IPath theContainerPath) {
+		List<String> allBundles = getBundles(theContainerPath);
+		List<IClasspathEntry> allEntries = new ArrayList<>();
+
+		for (String aBundleName : allBundles) {
+			IClasspathEntry aLibraryEntry = getLibraryEntry(aBundleName);
+
+			if (aLibraryEntry != null) {
+				allEntries.add(aLibraryEntry);
+			}
+			else {
+				Activator.error("Library container '" + theContainerPath + "': bundle '" + aBundleName + "' is not in the target platform");
+			}
+		}
+
+		return new LibraryContainer(theContainerPath, allBundles, allEntries.toArray(new IClasspathEntry[allEntries.size()]));
+	}
+
+	@Override
+	boolean isUpToDate(SharedClasspathContainer theContainer) {
+		return Objects.equals(((LibraryContainer) theContainer).bundles, getBundles(theContainer.getPath()));
+	}
+
+	private List<String> getBundles(IPath theContainerPath) {
+		if (theContainerPath.segmentCount() < 2) {
+			return Collections.emptyList();
+		}
+
+		List<String> allBundles = AdditionalProjectConfigurationDefinitionProvider.getInstance().findLibraryContainerBundles(theContainerPath.segment(1));
+
+		if (allBundles == null) {
+			if (reportedUndefinedContainers.add(theContainerPath.segment(1))) {
+				Activator.error("Library container '" + theContainerPath + "' is not defined in the additional project configuration");
+			}
+			return Collections.emptyList();
+		}
+		return allBundles;
+	}
+
+	private static IClasspathEntry getLibraryEntry(String theBundleName) {
+		IPath aLibraryPath = getBundleLocation(theBundleName);
+
+		if (aLibraryPath == null) {
+			return null;
+		}
+		return JavaCore.newLibraryEntry(aLibraryPath, getBundleLocation(theBundleName + ".source"), null);
+	}
+
+	/**
+	 * @return the location of the newest version of the bundle in the target platform or <code>null</code> if the
+	 *         target platform does not contain it
+	 */
+	private static IPath getBundleLocation(String theBundleName) {
+		IPluginModelBase aNewestModel = null;
+
+		// plug-in projects of the workspace are no libraries, so only the external models are of interest
+		for (IPluginModelBase aModel : PluginRegistry.getExternalModels()) {
+			if (theBundleName.equals(aModel.getPluginBase().getId()) && aModel.getInstallLocation() != null
+					&& (aNewestModel == null || getVersion(aModel).compareTo(getVersion(aNewestModel)) > 0)) {
+				aNewestModel = aModel;
+			}
+		}
+		return aNewestModel != null ? Path.fromOSString(aNewestModel.getInstallLocation()) : null;
+	}
+
+	private static Version getVersion(IPluginModelBase theModel) {
+		try {
+			return Version.parseVersion(theModel.getPluginBase().getVersion());
+		}
+		catch (IllegalArgumentException theCause) {
+			return Version.emptyVersion;
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package com.profidata.eclipse.enhancements.buildpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ClasspathContainerInitializer;
+import org.eclipse.jdt.core.IClasspathContainer;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Base of the classpath containers whose libraries are resolved from the installed bundles. A container is resolved
+ * once per container path and the same instance is shared by all projects, the projects referencing it are
+ * initialized together. A resolved container is dropped whenever one of the bundles it is resolved from changes.
+ */
+public abstract class SharedClasspathContainerInitializer extends ClasspathContainerInitializer {
+
+	static class SharedClasspathContainer implements IClasspathContainer {
+
+		private final IPath path;
+		private final String description;
+		private final IClasspathEntry[] entries;
+		private final Set<String> bundleNames;
+
+		/**
+		 * @param theBundleNames
+		 *            the symbolic names of the bundles the entries are resolved from, including the missing ones
+		 */
+		SharedClasspathContainer(IPath thePath, String theDescription, IClasspathEntry[] theEntries, Set<String> theBundleNames) {
+			path = thePath;
+			description = theDescription;
+			entries = theEntries;
+			bundleNames = theBundleNames;
+		}
+
+		@Override
+		public IClasspathEntry[] getClasspathEntries() {
+			// the container is shared by all projects, so its entries must not be modified
+			return entries.clone();
+		}
+
+		@Override
+		public String getDescription() {
+			return description;
+		}
+
+		@Override
+		public int getKind() {
+			return IClasspathContainer.K_APPLICATION;
+		}
+
+		@Override
+		public IPath getPath() {
+			return path;
+		}
+
+		boolean isResolvedFrom(String theBundleName) {
+			return theBundleName != null && bundleNames.contains(theBundleName);
+		}
+	}
+
+	// the initializers created by JDT, they are disposed when the bundle is stopped
+	private static final Set<SharedClasspathContainerInitializer> initializers = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Stops all initializers from following the changes of the installed bundles.
+	 */
+	public static void disposeAll() {
+		initializers.forEach(SharedClasspathContainerInitializer::dispose);
+		initializers.clear();
+	}
+
+	// container path -> resolved container shared by all projects
+	private final Map<IPath, SharedClasspathContainer> sharedContainers = new ConcurrentHashMap<>();
+	// container path -> projects the container has been set for
+	private final Map<IPath, Set<IJavaProject>> referencingProjects = new ConcurrentHashMap<>();
+	private final BundleContext bundleContext;
+	private final BundleListener bundleListener = theEvent -> {
+		switch (theEvent.getType()) {
+			case BundleEvent.INSTALLED:
+			case BundleEvent.UNINSTALLED:
+			case BundleEvent.UPDATED:
+			case BundleEvent.RESOLVED:
+			case BundleEvent.UNRESOLVED:
+				invalidate(theContainer -> theContainer.isResolvedFrom(theEvent.getBundle().getSymbolicName()));
+				break;
+			default:
+				break;
+		}
+	};
+
+	SharedClasspathContainerInitializer() {
+		Bundle aBundle = FrameworkUtil.getBundle(getClass());
+
+		bundleContext = aBundle != null ? aBundle.getBundleContext() : null;
+		if (bundleContext != null) {
+			bundleContext.addBundleListener(bundleListener);
+			initializers.add(this);
+		}
+	}
+
+	/**
+	 * @return the newly resolved container of the given path
+	 */
+	abstract SharedClasspathContainer createContainer(IPath theContainerPath);
+
+	/**
+	 * @return <code>false</code> if the definition of the resolved container has been changed since it was created
+	 */
+	boolean isUpToDate(SharedClasspathContainer theContainer) {
+		return true;
+	}
+
+	/**
+	 * Removes the listeners of this initializer.
+	 */
+	void dispose() {
+		try {
+			bundleContext.removeBundleListener(bundleListener);
+		}
+		catch (IllegalStateException theCause) {
+			// the bundle context is not valid anymore, its listeners are removed by the framework
+		}
+	}
+
+	@Override
+	public void initialize(IPath theContainerPath, IJavaProject theProject) throws CoreException {
+		SharedClasspathContainer aContainer = sharedContainers.get(theContainerPath);
+
+		if (aContainer != null && isUpToDate(aContainer)) {
+			// the other projects referencing the container have it already
+			setContainer(theContainerPath, Collections.singletonList(theProject));
+		}
+		else {
+			List<IJavaProject> allProjects = getReferencingProjects(theContainerPath);
+
+			if (!allProjects.contains(theProject)) {
+				allProjects.add(theProject);
+			}
+			setContainer(theContainerPath, allProjects);
+		}
+	}
+
+	/**
+	 * Drops all resolved containers and sets them again for the projects referencing them.
+	 */
+	void invalidate() {
+		invalidate(theContainer -> true);
+	}
+
+	/**
+	 * Drops the selected resolved containers and sets them again for the projects referencing them.
+	 */
+	void invalidate(Predicate<SharedClasspathContainer> theContainerFilter) {
+		List<IPath> allContainerPaths = new ArrayList<>();
+
+		sharedContainers.values().removeIf(theContainer -> {
+			if (theContainerFilter.test(theContainer)) {
+				allContainerPaths.add(theContainer.getPath());
+				return true;
+			}
+			return false;
+		});
+		if (allContainerPaths.isEmpty()) {
+			return;
+		}
+
+		Job aUpdateJob = Job.create("Update classpath containers", theMonitor -> {
+			for (IPath aContainerPath : allContainerPaths) {
+				List<IJavaProject> allProjects = referencingProjects.getOrDefault(aContainerPath, Collections.emptySet()).stream()
+						.filter(theProject -> theProject.getProject().isOpen())
+						.collect(Collectors.toList());
+
+				setContainer(aContainerPath, allProjects);
+			}
+		});
+
+		aUpdateJob.setSystem(true);
+		aUpdateJob.schedule();
+	}
+
+	/**
+	 * Sets the shared container for all given projects at once.
+	 */
+	private void setContainer(IPath theContainerPath, List<IJavaProject> theProjects) throws JavaModelException {
+		if (theProjects.isEmpty()) {
+			return;
+		}
+
+		SharedClasspathContainer aContainer = sharedContainers.compute(
+				theContainerPath,
+				(thePath, theContainer) -> theContainer != null && isUpToDate(theContainer) ? theContainer : createContainer(thePath));
+		IClasspathContainer[] allContainers = new IClasspathContainer[theProjects.size()];
+
+		referencingProjects.computeIfAbsent(theContainerPath, thePath -> ConcurrentHashMap.newKeySet()).addAll(theProjects);
+		Arrays.fill(allContainers, aContainer);
+		JavaCore.setClasspathContainer(theContainerPath, theProjects.toArray(new IJavaProject[theProjects.size()]), allContainers, null);
+	}
+
+	/**
+	 * @return the open projects referencing the container, the workspace is only scanned when the container is resolved
+	 */
+	private static List<IJavaProject> getReferencingProjects(IPath theContainerPath) throws JavaModelException {
+		List<IJavaProject> allProjects = new ArrayList<>();
+
+		for (IJavaProject aJavaProject : JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()) {
+			if (aJavaProject.getProject().isOpen()) {
+				for (IClasspathEntry aClasspathEntry : aJavaProject.getRawClasspath()) {
+					if (aClasspathEntry.getEntryKind() == IClasspathEntry.CPE_CONTAINER && aClasspathEntry.getPath().equals(theContainerPath)) {
+						allProjects.add(aJavaProject);
+						break;
+					}
+				}
+			}
+		}
+		return allProjects;
+	}
+}
@@ -1,20 +1,35 @@
 package com.profidata.eclipse.project.model;
 
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import org.osgi.framework.BundleContext;
 
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
 
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurationDefinitionProvider;
+import com.profidata.eclipse.project.model.monitor.AsynchronousLog;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics;
+
 public class Activator extends Plugin {
 
     private static BundleContext context;
     private static Plugin instance;
+    private static volatile AsynchronousLog log;
 
 
     public Activator() {
         instance = this;
     }
 
+    public static Plugin getDefault() {
+        return instance;
+    }
+
     public static BundleContext getContext() {
         return context;
     }
@@ -26,6 +41,8 @@ public class Activator extends Plugin {
 	@Override
     public void start(BundleContext bundleContext) throws Exception {
 		Activator.context = bundleContext;
+		log = new AsynchronousLog(getLog(), bundleContext.getBundle().getSymbolicName());
+		registerMBean(SynchronizationStatistics.getInstance(), SynchronizationStatistics.OBJECT_NAME);
 	}
 
 	/*
@@ -34,11 +51,36 @@ public class Activator extends Plugin {
 	 */
 	@Override
     public void stop(BundleContext bundleContext) throws Exception {
+		AdditionalProjectConfigurationDefinitionProvider.dispose();
+		unregisterMBean(SynchronizationStatistics.OBJECT_NAME);
+		// statuses logged from now on are written directly, the queued ones by close
+		AsynchronousLog aLog = log;
+
+		log = null;
+		aLog.close();
 		Activator.context = null;
 	}
 
+	private void registerMBean(Object theMBean, String theObjectName) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(theMBean, new ObjectName(theObjectName));
+		}
+		catch (JMException theCause) {
+			getLog().log(new Status(Status.WARNING, getBundle().getSymbolicName(), "Could not register MBean " + theObjectName, theCause));
+		}
+	}
+
+	private void unregisterMBean(String theObjectName) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(theObjectName));
+		}
+		catch (JMException theCause) {
+			// not registered
+		}
+	}
+
     public static void info(String theMessage) {
-        instance.getLog().log(new Status(Status.INFO, instance.getBundle().getSymbolicName(), theMessage, null));
+        log(new Status(Status.INFO, instance.getBundle().getSymbolicName(), theMessage, null));
     }
 
 
@@ -47,6 +89,20 @@ public class Activator extends Plugin {
     }
 
     public static void error(String theMessage, Throwable theException) {
-        instance.getLog().log(new Status(Status.ERROR, instance.getBundle().getSymbolicName(), theMessage, theException));
+        log(new Status(Status.ERROR, instance.getBundle().getSymbolicName(), theMessage, theException));
+    }
+
+    /**
+     * Logs the status asynchronously while the bundle is active.
+     */
+    public static void log(IStatus theStatus) {
+        AsynchronousLog aLog = log;
+
+        if (aLog != null) {
+            aLog.log(theStatus);
+        }
+        else {
+            instance.getLog().log(theStatus);
+        }
     }
 }
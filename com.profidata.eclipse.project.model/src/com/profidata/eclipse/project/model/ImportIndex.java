@@ -0,0 +1,282 @@
+package com.profidata.eclipse.project.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IJavaProject;
+
+import com.profidata.eclipse.project.model.ImportScanner.SourceRoot;
+
+/**
+ * Workspace wide index of the packages imported by each Java source file. A project is indexed completely on
+ * first access, afterwards only the source files reported as changed by resource deltas are scanned again.
+ * <p>
+ * The index is keyed by the workspace path of the source files, a file is indexed only if it is a compilation unit of
+ * a source folder, so that resource deltas of excluded files do not change the index.
+ */
+final class ImportIndex {
+
+	private static final ImportIndex INSTANCE = new ImportIndex();
+
+	static ImportIndex getInstance() {
+		return INSTANCE;
+	}
+
+	private final Map<String, ProjectImports> projectImports = new ConcurrentHashMap<>();
+
+	private ImportIndex() {
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(
+				new ImportIndexUpdater(),
+				IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
+	}
+
+	/**
+	 * @return the packages imported by all Java source files in the source folders of the project
+	 */
+	Set<String> getImportedPackages(IJavaProject theJavaProject) throws CoreException, IOException {
+		IProject aProject = theJavaProject.getProject();
+		List<SourceRoot> allSourceRoots = SourceRoot.of(theJavaProject);
+		ProjectImports aProjectImports = projectImports.get(aProject.getName());
+
+		if (aProjectImports == null || !aProjectImports.isIndexOf(allSourceRoots)) {
+			aProjectImports = new ProjectImports(allSourceRoots);
+
+			// register the index before it is built so that concurrent changes are not lost
+			projectImports.put(aProject.getName(), aProjectImports);
+			try {
+				aProjectImports.build();
+			}
+			catch (CoreException | IOException | RuntimeException theCause) {
+				projectImports.remove(aProject.getName(), aProjectImports);
+				throw theCause;
+			}
+		}
+
+		return aProjectImports.getImportedPackages();
+	}
+
+	private static class FileImports {
+		private final long modificationStamp;
+		private final Set<String> importedPackages;
+
+		FileImports(long theModificationStamp, Set<String> theImportedPackages) {
+			modificationStamp = theModificationStamp;
+			importedPackages = theImportedPackages;
+		}
+	}
+
+	private static class ProjectImports {
+		private final List<SourceRoot> sourceRoots;
+		private final List<IPath> sourceFolderPaths;
+		private final Map<IPath, FileImports> fileImports = new ConcurrentHashMap<>();
+
+		ProjectImports(List<SourceRoot> theSourceRoots) {
+			sourceRoots = theSourceRoots;
+			sourceFolderPaths = theSourceRoots.stream().map(theSourceRoot -> theSourceRoot.getFolder().getFullPath()).collect(Collectors.toList());
+		}
+
+		boolean isIndexOf(List<SourceRoot> theSourceRoots) {
+			return sourceRoots.equals(theSourceRoots);
+		}
+
+		void build() throws CoreException, IOException {
+			List<IFile> allSourceFiles = new ArrayList<>();
+
+			for (SourceRoot aSourceRoot : sourceRoots) {
+				allSourceFiles.addAll(ImportScanner.findSourceFiles(aSourceRoot));
+			}
+
+			try {
+				allSourceFiles.parallelStream().forEach(theSourceFile -> {
+					long aModificationStamp = theSourceFile.getModificationStamp();
+					Set<String> someImportedPackages = scan(theSourceFile);
+
+					// entries updated by a resource delta in the meantime are more recent
+					if (someImportedPackages != null) {
+						fileImports.putIfAbsent(theSourceFile.getFullPath(), new FileImports(aModificationStamp, someImportedPackages));
+					}
+				});
+			}
+			catch (UncheckedCoreException theCause) {
+				throw theCause.getCause();
+			}
+			catch (UncheckedIOException theCause) {
+				throw theCause.getCause();
+			}
+		}
+
+		Set<String> getImportedPackages() {
+			Set<String> allImportedPackages = new HashSet<>();
+
+			fileImports.values().forEach(theFileImports -> allImportedPackages.addAll(theFileImports.importedPackages));
+			return allImportedPackages;
+		}
+
+		/**
+		 * @return <code>true</code> if the given file is indexed, i.e. it is a compilation unit of a source folder
+		 */
+		boolean isSourceFile(IPath thePath) {
+			return sourceRoots.stream().anyMatch(theSourceRoot -> theSourceRoot.isSourceFile(thePath));
+		}
+
+		boolean isOnSourceFolderPath(IPath thePath) {
+			return sourceFolderPaths.stream().anyMatch(theSourceFolderPath -> theSourceFolderPath.isPrefixOf(thePath) || thePath.isPrefixOf(theSourceFolderPath));
+		}
+
+		void update(IFile theFile) {
+			FileImports aFileImports = fileImports.get(theFile.getFullPath());
+			long aModificationStamp = theFile.getModificationStamp();
+
+			if (aFileImports == null || aFileImports.modificationStamp != aModificationStamp || aModificationStamp == IResource.NULL_STAMP) {
+				Set<String> someImportedPackages = scan(theFile);
+
+				if (someImportedPackages != null) {
+					fileImports.put(theFile.getFullPath(), new FileImports(aModificationStamp, someImportedPackages));
+				}
+				else {
+					fileImports.remove(theFile.getFullPath());
+				}
+			}
+		}
+
+		void remove(IFile theFile) {
+			fileImports.remove(theFile.getFullPath());
+		}
+
+		/**
+		 * @return the imported packages or <code>null</code> if the file does not exist anymore
+		 */
+		private Set<String> scan(IFile theSourceFile) {
+			if (!theSourceFile.exists()) {
+				return null;
+			}
+
+			try {
+				return ImportScanner.scanFile(theSourceFile);
+			}
+			catch (CoreException theCause) {
+				if (!theSourceFile.exists()) {
+					return null;
+				}
+				throw new UncheckedCoreException(theCause);
+			}
+		}
+	}
+
+	private static class UncheckedCoreException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		UncheckedCoreException(CoreException theCause) {
+			super(theCause);
+		}
+
+		@Override
+		public synchronized CoreException getCause() {
+			return (CoreException) super.getCause();
+		}
+	}
+
+	private class ImportIndexUpdater implements IResourceChangeListener {
+
+		@Override
+		public void resourceChanged(IResourceChangeEvent theEvent) {
+			switch (theEvent.getType()) {
+				case IResourceChangeEvent.PRE_CLOSE:
+				case IResourceChangeEvent.PRE_DELETE:
+					if (theEvent.getResource() != null) {
+						projectImports.remove(theEvent.getResource().getName());
+					}
+					break;
+
+				case IResourceChangeEvent.POST_CHANGE:
+					List<IResourceDelta> allIndexedProjectDeltas = new ArrayList<>();
+
+					for (IResourceDelta aProjectDelta : theEvent.getDelta().getAffectedChildren()) {
+						if (projectImports.containsKey(aProjectDelta.getResource().getName())) {
+							allIndexedProjectDeltas.add(aProjectDelta);
+						}
+					}
+					for (IResourceDelta aProjectDelta : allIndexedProjectDeltas) {
+						try {
+							aProjectDelta.accept(new ImportIndexVisitor());
+						}
+						catch (CoreException | UncheckedCoreException | UncheckedIOException theCause) {
+							// rebuild the index of the project on next access
+							projectImports.remove(aProjectDelta.getResource().getName());
+							Activator.error("could not update imported packages of project '" + aProjectDelta.getResource().getName() + "': " + theCause.getMessage());
+						}
+					}
+					break;
+
+				default:
+					break;
+			}
+		}
+	}
+
+	private class ImportIndexVisitor implements IResourceDeltaVisitor {
+
+		@Override
+		public boolean visit(IResourceDelta theResourceDelta) {
+			IResource aResource = theResourceDelta.getResource();
+			ProjectImports aProjectImports = projectImports.get(aResource.getProject().getName());
+
+			if (aProjectImports == null) {
+				return false;
+			}
+
+			switch (aResource.getType()) {
+				case IResource.PROJECT:
+					if (theResourceDelta.getKind() == IResourceDelta.REMOVED || (theResourceDelta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.ENCODING)) != 0) {
+						projectImports.remove(aResource.getName());
+						return false;
+					}
+					return true;
+
+				case IResource.FOLDER:
+					if (!aProjectImports.isOnSourceFolderPath(aResource.getFullPath())) {
+						// only descend into folders containing or being part of a source folder
+						return false;
+					}
+					if ((theResourceDelta.getFlags() & IResourceDelta.ENCODING) != 0) {
+						// the files inherit the charset of the folder, rebuild the index of the project on next access
+						projectImports.remove(aResource.getProject().getName(), aProjectImports);
+						return false;
+					}
+					return true;
+
+				case IResource.FILE:
+					if (theResourceDelta.getKind() == IResourceDelta.REMOVED) {
+						aProjectImports.remove((IFile) aResource);
+					}
+					else if (aProjectImports.isSourceFile(aResource.getFullPath())) {
+						if (theResourceDelta.getKind() == IResourceDelta.ADDED
+								|| (theResourceDelta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING)) != 0) {
+							aProjectImports.update((IFile) aResource);
+						}
+					}
+					return false;
+
+				default:
+					return true;
+			}
+		}
+	}
+}
@@ -0,0 +1,366 @@
+package com.profidata.eclipse.project.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.CharOperation;
+
+/**
+ * Determines the imported packages of Java source files by reading only the file header (package and import
+ * declarations) directly from disk. Reading stops at the body of the first type declaration.
+ * <p>
+ * The source files are found in the resource tree like the Java model does: the inclusion and exclusion patterns of
+ * the source folder apply, files of nested source folders and of filtered resources are skipped and each file is read
+ * with its own charset.
+ */
+final class ImportScanner {
+
+	private static final String JAVA_FILE_EXTENSION = ".java";
+
+	/**
+	 * A source folder of a Java project with the inclusion and exclusion patterns of its classpath entry.
+	 */
+	static final class SourceRoot {
+		private final IContainer folder;
+		private final List<String> inclusionPatterns;
+		private final List<String> exclusionPatterns;
+		// source folders nested in this one, their files do not belong to this one
+		private final Set<IPath> nestedRootPaths;
+
+		private SourceRoot(IContainer theFolder, List<String> theInclusionPatterns, List<String> theExclusionPatterns, Set<IPath> theNestedRootPaths) {
+			folder = theFolder;
+			inclusionPatterns = theInclusionPatterns;
+			exclusionPatterns = theExclusionPatterns;
+			nestedRootPaths = theNestedRootPaths;
+		}
+
+		/**
+		 * @return the source folders of the project itself, the source folders of required projects are not included
+		 */
+		static List<SourceRoot> of(IJavaProject theJavaProject) throws JavaModelException {
+			Map<IContainer, IClasspathEntry> allSourceFolders = new LinkedHashMap<>();
+
+			for (IPackageFragmentRoot aPackageFragmentRoot : theJavaProject.getPackageFragmentRoots()) {
+				if (aPackageFragmentRoot.getKind() == IPackageFragmentRoot.K_SOURCE && aPackageFragmentRoot.getResource() instanceof IContainer) {
+					allSourceFolders.put((IContainer) aPackageFragmentRoot.getResource(), aPackageFragmentRoot.getRawClasspathEntry());
+				}
+			}
+
+			List<SourceRoot> allSourceRoots = new ArrayList<>();
+
+			allSourceFolders.forEach((theFolder, theClasspathEntry) -> {
+				Set<IPath> allNestedRootPaths = allSourceFolders.keySet().stream()
+						.map(IContainer::getFullPath)
+						.filter(thePath -> !thePath.equals(theFolder.getFullPath()) && theFolder.getFullPath().isPrefixOf(thePath))
+						.collect(Collectors.toSet());
+
+				allSourceRoots.add(new SourceRoot(theFolder, toPatterns(theClasspathEntry.getInclusionPatterns()), toPatterns(theClasspathEntry.getExclusionPatterns()), allNestedRootPaths));
+			});
+			return allSourceRoots;
+		}
+
+		IContainer getFolder() {
+			return folder;
+		}
+
+		/**
+		 * @return <code>true</code> if the given file is a compilation unit of this source folder
+		 */
+		boolean isSourceFile(IPath theFilePath) {
+			if (!theFilePath.lastSegment().endsWith(JAVA_FILE_EXTENSION) || !folder.getFullPath().isPrefixOf(theFilePath) || theFilePath.segmentCount() <= folder.getFullPath().segmentCount()) {
+				return false;
+			}
+
+			for (IPath aFolderPath = theFilePath.removeLastSegments(1); aFolderPath.segmentCount() > folder.getFullPath().segmentCount(); aFolderPath = aFolderPath.removeLastSegments(1)) {
+				if (isSkippedFolder(aFolderPath)) {
+					return false;
+				}
+			}
+			return isIncludedFile(theFilePath);
+		}
+
+		/**
+		 * @return <code>true</code> if the content of the given sub folder does not belong to this source folder
+		 */
+		boolean isSkippedFolder(IPath theFolderPath) {
+			String aRelativePath = theFolderPath.makeRelativeTo(folder.getFullPath()).toString();
+
+			return nestedRootPaths.contains(theFolderPath)
+					|| !isPackageName(theFolderPath.lastSegment())
+					|| matchesAny(exclusionPatterns, aRelativePath)
+					|| matchesAny(exclusionPatterns, aRelativePath + "/");
+		}
+
+		private boolean isIncludedFile(IPath theFilePath) {
+			String aRelativePath = theFilePath.makeRelativeTo(folder.getFullPath()).toString();
+
+			return (inclusionPatterns.isEmpty() || matchesAny(inclusionPatterns, aRelativePath)) && !matchesAny(exclusionPatterns, aRelativePath);
+		}
+
+		private static boolean matchesAny(List<String> thePatterns, String theRelativePath) {
+			return thePatterns.stream().anyMatch(thePattern -> CharOperation.pathMatch(thePattern.toCharArray(), theRelativePath.toCharArray(), true, '/'));
+		}
+
+		/**
+		 * Folders which are no valid package name do not contain compilation units for the Java model
+		 */
+		private static boolean isPackageName(String theFolderName) {
+			if (theFolderName.isEmpty() || !Character.isJavaIdentifierStart(theFolderName.charAt(0))) {
+				return false;
+			}
+			return theFolderName.chars().allMatch(Character::isJavaIdentifierPart);
+		}
+
+		private static List<String> toPatterns(IPath[] thePatterns) {
+			// like JDT a pattern ending with a slash matches the whole folder
+			return Arrays.stream(thePatterns)
+					.map(IPath::toString)
+					.map(thePattern -> thePattern.endsWith("/") ? thePattern + "**" : thePattern)
+					.collect(Collectors.toList());
+		}
+
+		@Override
+		public boolean equals(Object theOther) {
+			if (!(theOther instanceof SourceRoot)) {
+				return false;
+			}
+
+			SourceRoot aOther = (SourceRoot) theOther;
+
+			return folder.equals(aOther.folder)
+					&& inclusionPatterns.equals(aOther.inclusionPatterns)
+					&& exclusionPatterns.equals(aOther.exclusionPatterns)
+					&& nestedRootPaths.equals(aOther.nestedRootPaths);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(folder, inclusionPatterns, exclusionPatterns, nestedRootPaths);
+		}
+	}
+
+	private ImportScanner() {
+		// prevent from being instantiated
+	}
+
+	/**
+	 * @return the compilation units of the source folder which exist in the resource tree
+	 */
+	static List<IFile> findSourceFiles(SourceRoot theSourceRoot) throws CoreException {
+		List<IFile> allSourceFiles = new ArrayList<>();
+
+		if (!theSourceRoot.getFolder().isAccessible()) {
+			return allSourceFiles;
+		}
+
+		theSourceRoot.getFolder().accept(theProxy -> {
+			switch (theProxy.getType()) {
+				case IResource.FILE:
+					if (theProxy.getName().endsWith(JAVA_FILE_EXTENSION) && theSourceRoot.isIncludedFile(theProxy.requestFullPath())) {
+						allSourceFiles.add((IFile) theProxy.requestResource());
+					}
+					return false;
+
+				case IResource.FOLDER:
+					return theProxy.requestFullPath().equals(theSourceRoot.getFolder().getFullPath()) || !theSourceRoot.isSkippedFolder(theProxy.requestFullPath());
+
+				default:
+					return true;
+			}
+		}, IResource.NONE);
+
+		return allSourceFiles;
+	}
+
+	/**
+	 * @return the packages imported by the given source file, static imports are reduced to the package of the
+	 *         imported type
+	 */
+	static Set<String> scanFile(IFile theSourceFile) throws CoreException {
+		// the decoder of an InputStreamReader replaces malformed input instead of failing
+		try (Reader aReader = new BufferedReader(new InputStreamReader(theSourceFile.getContents(true), getCharset(theSourceFile)))) {
+			return scanHeader(aReader);
+		}
+		catch (IOException theCause) {
+			throw new UncheckedIOException(theCause);
+		}
+	}
+
+	private static Charset getCharset(IFile theSourceFile) {
+		try {
+			return Charset.forName(theSourceFile.getCharset());
+		}
+		catch (CoreException | IllegalArgumentException theCause) {
+			return Charset.defaultCharset();
+		}
+	}
+
+	private static Set<String> scanHeader(Reader theReader) throws IOException {
+		Set<String> allImportedPackages = new HashSet<>();
+		StringBuilder aStatement = new StringBuilder();
+		int aParenthesisDepth = 0;
+		int aChar = theReader.read();
+
+		while (aChar != -1) {
+			switch (aChar) {
+				case '/': {
+					int aNextChar = theReader.read();
+
+					if (aNextChar == '/') {
+						aChar = skipLineComment(theReader);
+						continue;
+					}
+					if (aNextChar == '*') {
+						skipBlockComment(theReader);
+						aStatement.append(' ');
+					}
+					else {
+						aStatement.append('/');
+						aChar = aNextChar;
+						continue;
+					}
+					break;
+				}
+
+				case '"':
+				case '\'':
+					skipLiteral(theReader, aChar);
+					aStatement.append(' ');
+					break;
+
+				case '(':
+					aParenthesisDepth++;
+					aStatement.append((char) aChar);
+					break;
+
+				case ')':
+					aParenthesisDepth--;
+					aStatement.append((char) aChar);
+					break;
+
+				case '{':
+					if (aParenthesisDepth <= 0) {
+						// body of the first type declaration reached, no more imports can follow
+						return allImportedPackages;
+					}
+					aStatement.append((char) aChar);
+					break;
+
+				case ';':
+					if (aParenthesisDepth <= 0) {
+						addImportedPackage(aStatement.toString(), allImportedPackages);
+						aStatement.setLength(0);
+					}
+					else {
+						aStatement.append((char) aChar);
+					}
+					break;
+
+				default:
+					aStatement.append((char) aChar);
+					break;
+			}
+			aChar = theReader.read();
+		}
+
+		return allImportedPackages;
+	}
+
+	private static int skipLineComment(Reader theReader) throws IOException {
+		int aChar = theReader.read();
+
+		while (aChar != -1 && aChar != '\n' && aChar != '\r') {
+			aChar = theReader.read();
+		}
+		return aChar;
+	}
+
+	private static void skipBlockComment(Reader theReader) throws IOException {
+		int aPreviousChar = 0;
+		int aChar = theReader.read();
+
+		while (aChar != -1 && !(aPreviousChar == '*' && aChar == '/')) {
+			aPreviousChar = aChar;
+			aChar = theReader.read();
+		}
+	}
+
+	private static void skipLiteral(Reader theReader, int theDelimiter) throws IOException {
+		int aChar = theReader.read();
+
+		while (aChar != -1 && aChar != theDelimiter && aChar != '\n') {
+			if (aChar == '\\') {
+				theReader.read();
+			}
+			aChar = theReader.read();
+		}
+	}
+
+	private static void addImportedPackage(String theStatement, Set<String> theImportedPackages) {
+		String aStatement = theStatement.trim();
+
+		if (!isKeyword(aStatement, "import")) {
+			// package declaration (possibly annotated) or an empty statement
+			return;
+		}
+
+		String aImport = aStatement.substring("import".length()).trim();
+		boolean isStatic = isKeyword(aImport, "static");
+
+		if (isStatic) {
+			aImport = aImport.substring("static".length());
+		}
+
+		String aPackage = extractPackage(aImport.replaceAll("\\s", ""), isStatic);
+
+		if (!aPackage.isEmpty()) {
+			theImportedPackages.add(aPackage);
+		}
+	}
+
+	private static boolean isKeyword(String theText, String theKeyword) {
+		return theText.startsWith(theKeyword) && theText.length() > theKeyword.length() && Character.isWhitespace(theText.charAt(theKeyword.length()));
+	}
+
+	/**
+	 * Reduces the name of an import declaration (e.g. <code>a.b.C</code>, <code>a.b.*</code> or the static
+	 * <code>a.b.C.member</code>) to the imported package.
+	 */
+	private static String extractPackage(String theImportName, boolean theStatic) {
+		final int skipLastElements = theStatic ? 2 : 1;
+
+		List<String> allImportTokens = new ArrayList<>();
+		Collections.addAll(allImportTokens, theImportName.split("\\."));
+		Collections.reverse(allImportTokens);
+
+		List<String> aImportPackageTokens = allImportTokens.stream().skip(skipLastElements)
+				.filter(thePackageToken -> !thePackageToken.isEmpty() && Character.isLowerCase(thePackageToken.codePointAt(0)))
+				.collect(Collectors.toList());
+		Collections.reverse(aImportPackageTokens);
+
+		return aImportPackageTokens.stream().collect(Collectors.joining("."));
+	}
+}
@@ -1,5 +1,6 @@
 package com.profidata.eclipse.project.model;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -23,17 +24,11 @@ import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IAccessRule;
 import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
-import org.eclipse.jdt.core.ICompilationUnit;
-import org.eclipse.jdt.core.IImportDeclaration;
-import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
-import org.eclipse.jdt.core.IParent;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.pde.core.IEditableModel;
@@ -56,14 +51,27 @@ import org.eclipse.pde.internal.core.text.bundle.FragmentHostHeader;
 import org.eclipse.pde.internal.core.text.bundle.ImportPackageHeader;
 import org.osgi.framework.Constants;
 
+import com.profidata.eclipse.project.model.monitor.MutationRecording;
+import com.profidata.eclipse.project.model.monitor.MutationRecording.Operation;
+import com.profidata.eclipse.project.model.monitor.SynchronizationLog;
+import com.profidata.eclipse.project.model.monitor.SynchronizationLog.EntryType;
+import com.profidata.eclipse.project.model.monitor.SynchronizationReport;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics.Mutation;
+
 @SuppressWarnings("restriction")
 public class ProjectWrapper {
 
 	private final IProject project;
 	private IJavaProject javaProject;
 
+	private List<IClasspathEntry> pendingClasspathEntries;
+	private int classpathChangeDepth;
+
+	private IBundlePluginModelBase bundleModel;
+	private boolean bundleModelChanged;
+
 	private String errorMessage;
-	private String protocolMessage;
 
 	public static ProjectWrapper of(IWorkspace theWorkspace, String theName) {
 		return new ProjectWrapper(theWorkspace.getRoot().getProject(theName));
@@ -83,11 +91,11 @@ public class ProjectWrapper {
 				project.create(null);
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not create project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not create project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		else {
-			errorMessage = "Project '" + project.getName() + "' already exists";
+			setErrorMessage("Project '" + project.getName() + "' already exists");
 		}
 		return this;
 	}
@@ -100,11 +108,11 @@ public class ProjectWrapper {
 				project.create(aProjectDescription, null);
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not create project '" + project.getName() + " with project description': " + theCause.getMessage();
+				setErrorMessage("Could not create project '" + project.getName() + " with project description': " + theCause.getMessage());
 			}
 		}
 		else {
-			errorMessage = "Project '" + project.getName() + "' already exists";
+			setErrorMessage("Project '" + project.getName() + "' already exists");
 		}
 		return this;
 	}
@@ -125,7 +133,7 @@ public class ProjectWrapper {
 				}
 			}
 			else {
-				errorMessage = "Project '" + project.getName() + "' is no Java project";
+				setErrorMessage("Project '" + project.getName() + "' is no Java project");
 			}
 		}
 		return this;
@@ -140,11 +148,14 @@ public class ProjectWrapper {
 
 					allNatureIds.add(theNatureId);
 					aProjectDescription.setNatureIds(allNatureIds.toArray(new String[allNatureIds.size()]));
-					project.setDescription(aProjectDescription, null);
+					try (MutationRecording aRecording = MutationRecording.start(Operation.ADD_NATURE, project).detail(theNatureId)) {
+						project.setDescription(aProjectDescription, null);
+						aRecording.succeeded();
+					}
 				}
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not add nature '" + theNatureId + "' to project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not add nature '" + theNatureId + "' to project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -159,11 +170,14 @@ public class ProjectWrapper {
 							.collect(Collectors.toList());
 
 					aProjectDescription.setNatureIds(allNatureIds.toArray(new String[allNatureIds.size()]));
-					project.setDescription(aProjectDescription, null);
+					try (MutationRecording aRecording = MutationRecording.start(Operation.REMOVE_NATURE, project).detail(theNatureId)) {
+						project.setDescription(aProjectDescription, null);
+						aRecording.succeeded();
+					}
 				}
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not add nature '" + theNatureId + "' to project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not add nature '" + theNatureId + "' to project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -196,7 +210,7 @@ public class ProjectWrapper {
 				project.setDescription(theProjectDescription, null);
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not set description for project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not set description for project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -209,7 +223,7 @@ public class ProjectWrapper {
 			}
 		}
 		catch (CoreException theCause) {
-			errorMessage = "Could not open project '" + project.getName() + "': " + theCause.getMessage();
+			setErrorMessage("Could not open project '" + project.getName() + "': " + theCause.getMessage());
 		}
 		return this;
 	}
@@ -228,7 +242,7 @@ public class ProjectWrapper {
 			}
 		}
 		catch (CoreException theCause) {
-			errorMessage = "Could not close project '" + project.getName() + "': " + theCause.getMessage();
+			setErrorMessage("Could not close project '" + project.getName() + "': " + theCause.getMessage());
 		}
 		return this;
 	}
@@ -252,7 +266,7 @@ public class ProjectWrapper {
 				aBuilderCommand.setBuilderName(theBuilderId);
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not add builder '" + theBuilderId + "' to project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not add builder '" + theBuilderId + "' to project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -275,7 +289,7 @@ public class ProjectWrapper {
 				}
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not create source folder '" + theFolderName + "' in Java project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not create source folder '" + theFolderName + "' in Java project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -291,12 +305,13 @@ public class ProjectWrapper {
 			IFolder aSourceLinkFolder = project.getFolder(theFolderName);
 
 			if (!aSourceLinkFolder.exists()) {
-				try {
+				try (MutationRecording aRecording = MutationRecording.start(Operation.CREATE_LINKED_SOURCE_FOLDER, project).detail(theFolderName)) {
 					aSourceLinkFolder.createLink(theSourceLocation, IResource.NONE, null);
+					aRecording.succeeded();
 				}
 				catch (CoreException theCause) {
-					errorMessage = "Could not create linked source folder '" + theFolderName + "' in Java project '" + project.getName() + "' to location '"
-							+ theSourceLocation + "': " + theCause.getMessage();
+					setErrorMessage("Could not create linked source folder '" + theFolderName + "' in Java project '" + project.getName() + "' to location '"
+							+ theSourceLocation + "': " + theCause.getMessage());
 				}
 			}
 		}
@@ -308,11 +323,11 @@ public class ProjectWrapper {
 
 		if (!hasError()) {
 			try {
-				Arrays.asList(javaProject.getRawClasspath()).stream().filter(theClasspathEntry -> theClasspathEntry.getPath().equals(project.getFullPath())).findFirst()
+				getRawClasspathEntries().stream().filter(theClasspathEntry -> theClasspathEntry.getPath().equals(project.getFullPath())).findFirst()
 						.ifPresent(theClasspathEntry -> removeClasspathEntry(theProject -> theClasspathEntry));
 			}
 			catch (JavaModelException theCause) {
-				errorMessage = "Could not remove default source folder from Java project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not remove default source folder from Java project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -323,12 +338,12 @@ public class ProjectWrapper {
 
 		if (!hasError()) {
 			try {
-				Arrays.asList(javaProject.getRawClasspath()).stream()
+				getRawClasspathEntries().stream()
 						.filter(theClasspathEntry -> theClasspathEntry.getPath().equals(project.getFullPath().append(theFolderName))).findFirst()
 						.ifPresent(theClasspathEntry -> removeClasspathEntry(theProject -> theClasspathEntry));
 			}
 			catch (JavaModelException theCause) {
-				errorMessage = "Could not remove source folder '" + theFolderName + "' from Java project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not remove source folder '" + theFolderName + "' from Java project '" + project.getName() + "': " + theCause.getMessage());
 			}
 			if (!hasError()) {
 				try {
@@ -336,7 +351,7 @@ public class ProjectWrapper {
 					folder.delete(true, null);
 				}
 				catch (CoreException theCause) {
-					errorMessage = "Could not create source folder '" + theFolderName + "' in Java project '" + project.getName() + "': " + theCause.getMessage();
+					setErrorMessage("Could not create source folder '" + theFolderName + "' in Java project '" + project.getName() + "': " + theCause.getMessage());
 				}
 			}
 		}
@@ -356,7 +371,7 @@ public class ProjectWrapper {
 				javaProject.setOutputLocation(aBinaryFolder.getFullPath(), null);
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not set output folder '" + theFolderName + "' in Java project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not set output folder '" + theFolderName + "' in Java project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -369,27 +384,28 @@ public class ProjectWrapper {
 			IClasspathEntry aClasspathEntry = theClasspathEntrySupplier.apply(project);
 			if (!hasClasspathEntry(aClasspathEntry.getPath())) {
 				try {
-					List<IClasspathEntry> allClasspathEntries = new ArrayList<>(Arrays.asList(javaProject.getRawClasspath()));
+					List<IClasspathEntry> allClasspathEntries = getRawClasspathEntries();
 
 					allClasspathEntries.add(aClasspathEntry);
-					javaProject.setRawClasspath(allClasspathEntries.toArray(new IClasspathEntry[allClasspathEntries.size()]), null);
+					setRawClasspathEntries(allClasspathEntries);
+					addProtocolEntry(EntryType.CLASSPATH_ENTRY_ADDED, aClasspathEntry.getPath().toString());
 				}
 				catch (JavaModelException theCause) {
-					errorMessage = "Could not add classpath entry '" + aClasspathEntry + "' to Java project '" + project.getName() + "': " + theCause.getMessage();
+					setErrorMessage("Could not add classpath entry '" + aClasspathEntry + "' to Java project '" + project.getName() + "': " + theCause.getMessage());
 				}
 			}
 
 			else if (hasDifferentAccessRules(aClasspathEntry.getAccessRules(), getClasspathEntry(aClasspathEntry.getPath()).getAccessRules())) {
 				try {
-					List<IClasspathEntry> allClasspathEntries = new ArrayList<>(Arrays.asList(javaProject.getRawClasspath())).stream()
+					List<IClasspathEntry> allClasspathEntries = getRawClasspathEntries().stream()
 							.filter(theClasspathEntry -> !theClasspathEntry.getPath().equals(aClasspathEntry.getPath())).collect(Collectors.toList());
 
 					allClasspathEntries.add(aClasspathEntry);
-					javaProject.setRawClasspath(allClasspathEntries.toArray(new IClasspathEntry[allClasspathEntries.size()]), null);
+					setRawClasspathEntries(allClasspathEntries);
 				}
 				catch (JavaModelException theCause) {
-					errorMessage = "Could not modify accessrules of classpath entry '" + aClasspathEntry + "' in Java project '" + project.getName() + "': "
-							+ theCause.getMessage();
+					setErrorMessage("Could not modify accessrules of classpath entry '" + aClasspathEntry + "' in Java project '" + project.getName() + "': "
+							+ theCause.getMessage());
 				}
 			}
 		}
@@ -419,13 +435,13 @@ public class ProjectWrapper {
 		if (!hasError()) {
 			IClasspathEntry aClasspathEntry = theClasspathEntrySupplier.apply(project);
 			try {
-				List<IClasspathEntry> allClasspathEntries = new ArrayList<>(Arrays.asList(javaProject.getRawClasspath())).stream()
+				List<IClasspathEntry> allClasspathEntries = getRawClasspathEntries().stream()
 						.filter(theClasspathEntry -> !theClasspathEntry.getPath().equals(aClasspathEntry.getPath())).collect(Collectors.toList());
 
-				javaProject.setRawClasspath(allClasspathEntries.toArray(new IClasspathEntry[allClasspathEntries.size()]), null);
+				setRawClasspathEntries(allClasspathEntries);
 			}
 			catch (JavaModelException theCause) {
-				errorMessage = "Could not remove classpath entry '" + aClasspathEntry + "' of Java project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not remove classpath entry '" + aClasspathEntry + "' of Java project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -436,13 +452,13 @@ public class ProjectWrapper {
 
 		if (!hasError()) {
 			try {
-				List<IClasspathEntry> allClasspathEntries = new ArrayList<>(Arrays.asList(javaProject.getRawClasspath())).stream()
+				List<IClasspathEntry> allClasspathEntries = getRawClasspathEntries().stream()
 						.filter(theClasspathEntry -> !theClasspathEntry.getPath().equals(thePath)).collect(Collectors.toList());
 
-				javaProject.setRawClasspath(allClasspathEntries.toArray(new IClasspathEntry[allClasspathEntries.size()]), null);
+				setRawClasspathEntries(allClasspathEntries);
 			}
 			catch (JavaModelException theCause) {
-				errorMessage = "Could not remove classpath entry with path '" + thePath + "' of Java project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not remove classpath entry with path '" + thePath + "' of Java project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -457,7 +473,7 @@ public class ProjectWrapper {
 
 		try {
 			if (!hasError()) {
-				return new ArrayList<>(Arrays.asList(javaProject.getRawClasspath())).stream().filter(theClasspathEntry -> theClasspathEntry.getPath().equals(thePath))
+				return getRawClasspathEntries().stream().filter(theClasspathEntry -> theClasspathEntry.getPath().equals(thePath))
 						.findFirst().orElse(null);
 			}
 			return null;
@@ -467,9 +483,75 @@ public class ProjectWrapper {
 		}
 	}
 
+	/**
+	 * Starts a classpath transaction: all following classpath modifications are only collected in memory and
+	 * written with a single {@link IJavaProject#setRawClasspath} call by {@link #commitClasspathChanges()}.
+	 * Transactions may be nested, only the outermost commit writes the classpath.
+	 */
+	public ProjectWrapper beginClasspathChanges() {
+		verifyJavaProject();
+
+		if (!hasError()) {
+			if (classpathChangeDepth == 0) {
+				try {
+					pendingClasspathEntries = new ArrayList<>(Arrays.asList(javaProject.getRawClasspath()));
+				}
+				catch (JavaModelException theCause) {
+					setErrorMessage("Could not read classpath entries of Java project '" + project.getName() + "': " + theCause.getMessage());
+					return this;
+				}
+			}
+			classpathChangeDepth++;
+		}
+		return this;
+	}
+
+	/**
+	 * Ends a classpath transaction started by {@link #beginClasspathChanges()}. The collected classpath is only
+	 * written if it differs from the classpath of the Java project.
+	 */
+	public ProjectWrapper commitClasspathChanges() {
+		if (classpathChangeDepth > 0 && --classpathChangeDepth == 0) {
+			List<IClasspathEntry> allClasspathEntries = pendingClasspathEntries;
+
+			pendingClasspathEntries = null;
+			try {
+				setRawClasspathEntries(allClasspathEntries);
+			}
+			catch (JavaModelException theCause) {
+				setErrorMessage("Could not set classpath entries of Java project '" + project.getName() + "': " + theCause.getMessage());
+			}
+		}
+		return this;
+	}
+
+	private List<IClasspathEntry> getRawClasspathEntries() throws JavaModelException {
+		if (pendingClasspathEntries != null) {
+			return new ArrayList<>(pendingClasspathEntries);
+		}
+		return new ArrayList<>(Arrays.asList(javaProject.getRawClasspath()));
+	}
+
+	private void setRawClasspathEntries(List<IClasspathEntry> theClasspathEntries) throws JavaModelException {
+		if (pendingClasspathEntries != null) {
+			pendingClasspathEntries = new ArrayList<>(theClasspathEntries);
+		}
+		else {
+			IClasspathEntry[] allClasspathEntries = theClasspathEntries.toArray(new IClasspathEntry[theClasspathEntries.size()]);
+
+			if (!Arrays.equals(javaProject.getRawClasspath(), allClasspathEntries)) {
+				try (MutationRecording aRecording = MutationRecording.start(Operation.SET_RAW_CLASSPATH, project)) {
+					javaProject.setRawClasspath(allClasspathEntries, null);
+					aRecording.succeeded();
+				}
+				SynchronizationStatistics.count(Mutation.SET_RAW_CLASSPATH, project.getName());
+			}
+		}
+	}
+
 	public void sortClasspath() {
 		try {
-			List<IClasspathEntry> allClasspathEntries = new ArrayList<>(Arrays.asList(javaProject.getRawClasspath()));
+			List<IClasspathEntry> allClasspathEntries = getRawClasspathEntries();
 
 			allClasspathEntries.sort((theEntry1, theEntry2) -> {
 				switch (theEntry1.getEntryKind()) {
@@ -556,10 +638,10 @@ public class ProjectWrapper {
 
 				return 0;
 			});
-			javaProject.setRawClasspath(allClasspathEntries.toArray(new IClasspathEntry[allClasspathEntries.size()]), null);
+			setRawClasspathEntries(allClasspathEntries);
 		}
 		catch (JavaModelException theCause) {
-			errorMessage = "Could not sort classpath entries of Java project '" + project.getName() + "': " + theCause.getMessage();
+			setErrorMessage("Could not sort classpath entries of Java project '" + project.getName() + "': " + theCause.getMessage());
 		}
 	}
 
@@ -569,12 +651,11 @@ public class ProjectWrapper {
 		verifyJavaProject();
 
 		if (!hasError()) {
-			IPluginModel aBundlePluginModel = new WorkspaceBundlePluginModel(PDEProject.getManifest(project), PDEProject.getPluginXml(project));
-			IBundlePluginModelBase aBundleModelBase = (IBundlePluginModelBase) aBundlePluginModel;
+			IPluginModel aBundlePluginModel = getBundlePluginModel();
 			IBundlePlugin aBundlePlugin = (IBundlePlugin) aBundlePluginModel.getPluginBase();
 
 			try {
-				IBundle aBundle = aBundleModelBase.getBundleModel().getBundle();
+				IBundle aBundle = bundleModel.getBundleModel().getBundle();
 
 				aBundlePlugin.setSchemaVersion("1.0");
 				aBundle.setHeader(Constants.BUNDLE_MANIFESTVERSION, "2");
@@ -601,10 +682,11 @@ public class ProjectWrapper {
 				Collections.sort(allSortedSourcePackages);
 				addToExortPackageHeader(aBundle, allSortedSourcePackages);
 
-				aBundleModelBase.save();
+				bundleModelChanged = true;
+				saveBundleModel();
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not manifest for plugin project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not manifest for plugin project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -614,9 +696,7 @@ public class ProjectWrapper {
 		verifyJavaProject();
 
 		if (!hasError()) {
-			IPluginModel aBundlePluginModel = new WorkspaceBundlePluginModel(PDEProject.getManifest(project), PDEProject.getPluginXml(project));
-			IBundlePluginModelBase aBundleModelBase = (IBundlePluginModelBase) aBundlePluginModel;
-			IBundle aBundle = aBundleModelBase.getBundleModel().getBundle();
+			IBundle aBundle = getBundleModel().getBundleModel().getBundle();
 			IManifestHeader aHeader = aBundle.getManifestHeader(Constants.BUNDLE_SYMBOLICNAME);
 
 			if (aHeader instanceof BundleSymbolicNameHeader) {
@@ -624,32 +704,67 @@ public class ProjectWrapper {
 
 				if (aBundleSymbolicNameHeader.isSingleton() != theSingleton) {
 					aBundleSymbolicNameHeader.setSingleton(theSingleton);
-					addProtocolMessage(" - " + project.getName() + " -> singleton = " + theSingleton);
-					aBundleModelBase.save();
+					addProtocolEntry(EntryType.SINGLETON_CHANGED, String.valueOf(theSingleton));
+					bundleModelChanged = true;
+					saveBundleModel();
 				}
 			}
 
 			else {
-				errorMessage = "bundle symbolic name header of project '" + project.getName() + "' is not of type BundleSymbolicNameHeader";
+				setErrorMessage("bundle symbolic name header of project '" + project.getName() + "' is not of type BundleSymbolicNameHeader");
+			}
+
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the required execution environment in the manifest and the corresponding JRE container in the classpath.
+	 */
+	public ProjectWrapper setExecutionEnvironment(String theExecutionEnvironment) {
+		verifyJavaProject();
+
+		if (!hasError() && theExecutionEnvironment != null) {
+			IBundle aBundle = getBundleModel().getBundleModel().getBundle();
+
+			if (!theExecutionEnvironment.equals(aBundle.getHeader(Constants.BUNDLE_REQUIREDEXECUTIONENVIRONMENT))) {
+				aBundle.setHeader(Constants.BUNDLE_REQUIREDEXECUTIONENVIRONMENT, theExecutionEnvironment);
+				addProtocolEntry(EntryType.EXECUTION_ENVIRONMENT_CHANGED, theExecutionEnvironment);
+				bundleModelChanged = true;
+				saveBundleModel();
 			}
 
+			IPath aJreContainerPath = new org.eclipse.core.runtime.Path("org.eclipse.jdt.launching.JRE_CONTAINER/org.eclipse.jdt.internal.debug.ui.launcher.StandardVMType").append(theExecutionEnvironment);
+
+			try {
+				List<IClasspathEntry> allClasspathEntries = getRawClasspathEntries();
+
+				for (int i = 0; i < allClasspathEntries.size(); i++) {
+					IClasspathEntry aClasspathEntry = allClasspathEntries.get(i);
+
+					if (aClasspathEntry.getEntryKind() == IClasspathEntry.CPE_CONTAINER && aClasspathEntry.getPath().segment(0).equals("org.eclipse.jdt.launching.JRE_CONTAINER")
+							&& !aJreContainerPath.equals(aClasspathEntry.getPath())) {
+						allClasspathEntries.set(i, JavaCore.newContainerEntry(aJreContainerPath));
+					}
+				}
+				setRawClasspathEntries(allClasspathEntries);
+			}
+			catch (JavaModelException theCause) {
+				setErrorMessage("Could not set execution environment of Java project '" + project.getName() + "': " + theCause.getMessage());
+			}
 		}
 		return this;
 	}
 
 	public boolean isFragment() {
-		IPluginModel aBundlePluginModel = new WorkspaceBundlePluginModel(PDEProject.getManifest(project), PDEProject.getPluginXml(project));
-		IBundlePluginModelBase aBundleModelBase = (IBundlePluginModelBase) aBundlePluginModel;
-		IBundle aBundle = aBundleModelBase.getBundleModel().getBundle();
+		IBundle aBundle = getBundleModel().getBundleModel().getBundle();
 		IManifestHeader aHeader = aBundle.getManifestHeader(Constants.FRAGMENT_HOST);
 
 		return (aHeader instanceof FragmentHostHeader);
 	}
 
 	public String getFragmentHostId() {
-		IPluginModel aBundlePluginModel = new WorkspaceBundlePluginModel(PDEProject.getManifest(project), PDEProject.getPluginXml(project));
-		IBundlePluginModelBase aBundleModelBase = (IBundlePluginModelBase) aBundlePluginModel;
-		IBundle aBundle = aBundleModelBase.getBundleModel().getBundle();
+		IBundle aBundle = getBundleModel().getBundleModel().getBundle();
 		IManifestHeader aHeader = aBundle.getManifestHeader(Constants.FRAGMENT_HOST);
 
 		if (aHeader instanceof FragmentHostHeader) {
@@ -671,7 +786,7 @@ public class ProjectWrapper {
 			aImportPackageHeader = (ImportPackageHeader) theBundle.getManifestHeader(Constants.IMPORT_PACKAGE);
 			somePackagesAdded++;
 
-			addProtocolMessage(" - " + aPackage);
+			addProtocolEntry(EntryType.IMPORT_PACKAGE_ADDED, aPackage);
 		}
 
 		for (String aPackage : someImportPackages) {
@@ -686,13 +801,35 @@ public class ProjectWrapper {
 				aImportPackageHeader.addPackage(aPackage);
 				somePackagesAdded++;
 
-				addProtocolMessage(" - " + aPackage);
+				addProtocolEntry(EntryType.IMPORT_PACKAGE_ADDED, aPackage);
 			}
 		}
 
 		return somePackagesAdded > 0;
 	}
 
+	private boolean removeFromImportPackageHeader(IBundle theBundle, List<String> thePackages) {
+		ImportPackageHeader aImportPackageHeader = (ImportPackageHeader) theBundle.getManifestHeader(Constants.IMPORT_PACKAGE);
+		int somePackagesRemoved = 0;
+
+		if (aImportPackageHeader != null) {
+			for (String aPackage : thePackages) {
+				if (aImportPackageHeader.hasPackage(aPackage)) {
+					aImportPackageHeader.removePackage(aPackage);
+					somePackagesRemoved++;
+
+					addProtocolEntry(EntryType.IMPORT_PACKAGE_REMOVED, aPackage);
+				}
+			}
+
+			if (aImportPackageHeader.getPackages().length == 0) {
+				theBundle.setHeader(Constants.IMPORT_PACKAGE, null);
+			}
+		}
+
+		return somePackagesRemoved > 0;
+	}
+
 	private boolean addToExortPackageHeader(IBundle theBundle, List<String> theImportPackages) {
 		ExportPackageHeader aExportPackageHeader = (ExportPackageHeader) theBundle.getManifestHeader(Constants.EXPORT_PACKAGE);
 		List<String> someExportPackages = new ArrayList<>(theImportPackages);
@@ -720,14 +857,13 @@ public class ProjectWrapper {
 		verifyJavaProject();
 
 		if (!hasError()) {
-			IPluginModel aBundlePluginModel = new WorkspaceBundlePluginModel(PDEProject.getManifest(project), PDEProject.getPluginXml(project));
-			IBundlePluginModelBase aBundleModelBase = (IBundlePluginModelBase) aBundlePluginModel;
-			IBundle aBundle = aBundleModelBase.getBundleModel().getBundle();
+			IBundle aBundle = getBundleModel().getBundleModel().getBundle();
 			Set<String> someAdditionalPackageDependencies = Optional.ofNullable(theAdditionalPackageDependencies.get()).orElseGet(() -> Collections.emptySet());
 
 			if (!someAdditionalPackageDependencies.isEmpty()) {
 				if (addToImportPackageHeader(aBundle, new ArrayList<>(someAdditionalPackageDependencies))) {
-					aBundleModelBase.save();
+					bundleModelChanged = true;
+					saveBundleModel();
 				}
 			}
 		}
@@ -759,12 +895,11 @@ public class ProjectWrapper {
 		verifyJavaProject();
 
 		if (!hasError()) {
-			IFragmentModel aFragmentModel = new WorkspaceBundleFragmentModel(PDEProject.getManifest(project), PDEProject.getFragmentXml(project));
-			IBundlePluginModelBase aBundleModelBase = (IBundlePluginModelBase) aFragmentModel;
+			IFragmentModel aFragmentModel = getBundleFragmentModel();
 			IBundleFragment aBundleFragment = (IBundleFragment) aFragmentModel.getPluginBase();
 
 			try {
-				IBundle aBundle = aBundleModelBase.getBundleModel().getBundle();
+				IBundle aBundle = bundleModel.getBundleModel().getBundle();
 				ProjectWrapper aHostBundleProjectWrapper = ProjectWrapper.of(theHostBundleProject);
 
 				if (aHostBundleProjectWrapper.hasNature(JavaCore.NATURE_ID)) {
@@ -796,10 +931,11 @@ public class ProjectWrapper {
 						theSpecialPackageDependencies);
 				addToImportPackageHeader(aBundle, allSortedImportedPackages);
 
-				aBundleModelBase.save();
+				bundleModelChanged = true;
+				saveBundleModel();
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not manifest for test fragment project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not manifest for test fragment project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -813,10 +949,7 @@ public class ProjectWrapper {
 		verifyJavaProject();
 
 		if (!hasError()) {
-			IFragmentModel aFragmentModel = new WorkspaceBundleFragmentModel(PDEProject.getManifest(project), PDEProject.getFragmentXml(project));
-			IBundlePluginModelBase aBundleModelBase = (IBundlePluginModelBase) aFragmentModel;
-
-			IBundle aBundle = aBundleModelBase.getBundleModel().getBundle();
+			IBundle aBundle = getBundleFragmentModel().getBundleModel().getBundle();
 			ProjectWrapper aHostBundleProjectWrapper = ProjectWrapper.of(theHostBundleProject);
 
 			if (aHostBundleProjectWrapper.hasNature(JavaCore.NATURE_ID)) {
@@ -829,9 +962,52 @@ public class ProjectWrapper {
 					theAdditionalPackageDependencies,
 					theIgnorePackageDependencies,
 					theSpecialPackageDependencies);
-			addToImportPackageHeader(aBundle, allSortedImportedPackages);
+			if (addToImportPackageHeader(aBundle, allSortedImportedPackages)) {
+				bundleModelChanged = true;
+				saveBundleModel();
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Removes the given package dependencies from the manifest of the test fragment, unless they are still imported
+	 * because of the source code. A package whose additional package dependency has been changed is removed as well, so
+	 * that it is imported again with its new attributes.
+	 */
+	public ProjectWrapper removePackageDependenciesFromTestFragmentManifest(
+			IProject theHostBundleProject,
+			Supplier<Set<String>> theAdditionalPackageDependencies,
+			Supplier<Set<String>> theRemovedPackageDependencies) {
+		verifyJavaProject();
 
-			aBundleModelBase.save();
+		if (!hasError() && !theRemovedPackageDependencies.get().isEmpty()) {
+			IBundle aBundle = getBundleFragmentModel().getBundleModel().getBundle();
+			ProjectWrapper aHostBundleProjectWrapper = ProjectWrapper.of(theHostBundleProject);
+
+			if (aHostBundleProjectWrapper.hasNature(JavaCore.NATURE_ID)) {
+				aHostBundleProjectWrapper.asJavaProject();
+			}
+
+			Set<String> allImportedPackages = determinePackagesToImport(
+					aHostBundleProjectWrapper.getSourcePackages(),
+					theAdditionalPackageDependencies,
+					Collections::emptySet,
+					Collections.emptyMap()).stream()
+							.map(thePackageDependency -> thePackageDependency.split(";", 2)[0])
+							.collect(Collectors.toSet());
+			Set<String> allAdditionalPackages = theAdditionalPackageDependencies.get().stream()
+					.map(thePackageDependency -> thePackageDependency.split(";", 2)[0])
+					.collect(Collectors.toSet());
+			List<String> someRemovedPackages = theRemovedPackageDependencies.get().stream()
+					.map(thePackageDependency -> thePackageDependency.split(";", 2)[0])
+					.filter(thePackage -> !allImportedPackages.contains(thePackage) || allAdditionalPackages.contains(thePackage))
+					.collect(Collectors.toList());
+
+			if (removeFromImportPackageHeader(aBundle, someRemovedPackages)) {
+				bundleModelChanged = true;
+				saveBundleModel();
+			}
 		}
 		return this;
 	}
@@ -845,9 +1021,7 @@ public class ProjectWrapper {
 		verifyJavaProject();
 
 		if (!hasError()) {
-			IFragmentModel aFragmentModel = new WorkspaceBundleFragmentModel(PDEProject.getManifest(project), PDEProject.getFragmentXml(project));
-			IBundlePluginModelBase aBundleModelBase = (IBundlePluginModelBase) aFragmentModel;
-			IBundle aBundle = aBundleModelBase.getBundleModel().getBundle();
+			IBundle aBundle = getBundleFragmentModel().getBundleModel().getBundle();
 			ProjectWrapper aHostBundleProjectWrapper = ProjectWrapper.of(theWorkspace, getFragmentHostId()).asJavaProject();
 
 			List<String> allSortedImportedPackages = determinePackagesToImport(
@@ -857,12 +1031,53 @@ public class ProjectWrapper {
 					theIgnorePackageDependencies,
 					theSpecialPackageDependencies);
 			if (addToImportPackageHeader(aBundle, allSortedImportedPackages)) {
-				aBundleModelBase.save();
+				bundleModelChanged = true;
+				saveBundleModel();
 			}
 		}
 		return this;
 	}
 
+	/**
+	 * @return the bundle model of the project's manifest, it is loaded only once for this wrapper
+	 */
+	private IBundlePluginModelBase getBundleModel() {
+		if (bundleModel == null) {
+			bundleModel = new WorkspaceBundlePluginModel(PDEProject.getManifest(project), PDEProject.getPluginXml(project));
+		}
+		return bundleModel;
+	}
+
+	private IPluginModel getBundlePluginModel() {
+		if (!(bundleModel instanceof IPluginModel)) {
+			saveBundleModel();
+			bundleModel = new WorkspaceBundlePluginModel(PDEProject.getManifest(project), PDEProject.getPluginXml(project));
+		}
+		return (IPluginModel) bundleModel;
+	}
+
+	private IFragmentModel getBundleFragmentModel() {
+		if (!(bundleModel instanceof IFragmentModel)) {
+			saveBundleModel();
+			bundleModel = new WorkspaceBundleFragmentModel(PDEProject.getManifest(project), PDEProject.getFragmentXml(project));
+		}
+		return (IFragmentModel) bundleModel;
+	}
+
+	/**
+	 * Writes the manifest only if one of its headers has been changed.
+	 */
+	private void saveBundleModel() {
+		if (bundleModelChanged) {
+			try (MutationRecording aRecording = MutationRecording.start(Operation.SAVE_MANIFEST, project)) {
+				bundleModel.save();
+				aRecording.succeeded();
+			}
+			bundleModelChanged = false;
+			SynchronizationStatistics.count(Mutation.MANIFEST_SAVE, project.getName());
+		}
+	}
+
 	private List<String> determinePackagesToImport(
 			Set<String> theSourcePackages,
 			Supplier<Set<String>> theAdditionalPackageDependencies,
@@ -915,7 +1130,7 @@ public class ProjectWrapper {
 				IBuildModelFactory aBuildModelFactory = aBuildModel.getFactory();
 				IBuildEntry aBuildEntry;
 
-				List<String> allSourceFolderNamess = Arrays.stream(javaProject.getRawClasspath())
+				List<String> allSourceFolderNamess = getRawClasspathEntries().stream()
 						.filter(theEntry -> theEntry.getContentKind() == IPackageFragmentRoot.K_SOURCE && theEntry.getEntryKind() == IClasspathEntry.CPE_SOURCE)
 						.map(theEntry -> theEntry.getPath().lastSegment()).collect(Collectors.toList());
 
@@ -938,18 +1153,22 @@ public class ProjectWrapper {
 							aAdditionalBundleBuildEntry.addToken(theAdditionalBundle);
 						}
 						catch (CoreException theCause) {
-							errorMessage = "Could add addition bundle '" + theAdditionalBundle + "' to build.properties file of bundle project '" + project.getName()
-									+ "': " + theCause.getMessage();
+							setErrorMessage("Could add addition bundle '" + theAdditionalBundle + "' to build.properties file of bundle project '" + project.getName()
+									+ "': " + theCause.getMessage());
 						}
 					});
 
 					aBuildModel.getBuild().add(aAdditionalBundleBuildEntry);
 				}
 
-				((IEditableModel) aBuildModel).save();
+				try (MutationRecording aRecording = MutationRecording.start(Operation.SAVE_BUILD_PROPERTIES, project)) {
+					((IEditableModel) aBuildModel).save();
+					aRecording.succeeded();
+				}
+				SynchronizationStatistics.count(Mutation.BUILD_PROPERTIES_SAVE, project.getName());
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not build.properties file for bundle project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not build.properties file for bundle project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -972,18 +1191,51 @@ public class ProjectWrapper {
 							aAdditionalBundleBuildEntry.addToken(theAdditionalBundle);
 						}
 						catch (CoreException theCause) {
-							errorMessage = "Could add addition bundle '" + theAdditionalBundle + "' to build.properties file of bundle project '" + project.getName()
-									+ "': " + theCause.getMessage();
+							setErrorMessage("Could add addition bundle '" + theAdditionalBundle + "' to build.properties file of bundle project '" + project.getName()
+									+ "': " + theCause.getMessage());
 						}
 					});
 
 					aBuildModel.getBuild().add(aAdditionalBundleBuildEntry);
 				}
 
-				((IEditableModel) aBuildModel).save();
+				try (MutationRecording aRecording = MutationRecording.start(Operation.SAVE_BUILD_PROPERTIES, project)) {
+					((IEditableModel) aBuildModel).save();
+					aRecording.succeeded();
+				}
+				SynchronizationStatistics.count(Mutation.BUILD_PROPERTIES_SAVE, project.getName());
+			}
+			catch (CoreException theCause) {
+				setErrorMessage("Could not build.properties file for bundle project '" + project.getName() + "': " + theCause.getMessage());
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Removes the additional bundles written by {@link #updateBuildProperties(List)} from the build.properties file.
+	 */
+	public ProjectWrapper removeAdditionalBundlesFromBuildProperties() {
+		verifyJavaProject();
+
+		if (!hasError()) {
+			try {
+				IFile aBuildPropertiesFile = PDEProject.getBuildProperties(project);
+				WorkspaceBuildModel aBuildModel = new WorkspaceBuildModel(aBuildPropertiesFile);
+				IBuildEntry aAdditionalBundleBuildEntry = aBuildModel.getBuild().getEntry(IBuildEntry.SECONDARY_DEPENDENCIES);
+
+				if (aAdditionalBundleBuildEntry != null) {
+					aBuildModel.getBuild().remove(aAdditionalBundleBuildEntry);
+
+					try (MutationRecording aRecording = MutationRecording.start(Operation.SAVE_BUILD_PROPERTIES, project)) {
+						((IEditableModel) aBuildModel).save();
+						aRecording.succeeded();
+					}
+					SynchronizationStatistics.count(Mutation.BUILD_PROPERTIES_SAVE, project.getName());
+				}
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not build.properties file for bundle project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not remove additional bundles from build.properties file of bundle project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -995,7 +1247,7 @@ public class ProjectWrapper {
 				project.build(IncrementalProjectBuilder.CLEAN_BUILD, null);
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not build project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not build project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -1003,11 +1255,13 @@ public class ProjectWrapper {
 
 	public ProjectWrapper refresh() {
 		if (!hasError()) {
-			try {
+			try (MutationRecording aRecording = MutationRecording.start(Operation.REFRESH, project)) {
 				project.refreshLocal(IResource.DEPTH_INFINITE, null);
+				aRecording.succeeded();
+				SynchronizationStatistics.count(Mutation.REFRESH_LOCAL, project.getName());
 			}
 			catch (CoreException theCause) {
-				errorMessage = "Could not refresh project '" + project.getName() + "': " + theCause.getMessage();
+				setErrorMessage("Could not refresh project '" + project.getName() + "': " + theCause.getMessage());
 			}
 		}
 		return this;
@@ -1022,48 +1276,28 @@ public class ProjectWrapper {
 				aSourceFolder.createPackageFragment(thePackage, true, null);
 			}
 			catch (JavaModelException theCause) {
-				errorMessage = "Could not create package '" + thePackage + "' in source folder '" + theFolder + "': " + theCause.getMessage();
+				setErrorMessage("Could not create package '" + thePackage + "' in source folder '" + theFolder + "': " + theCause.getMessage());
 			}
 		}
 		return this;
 	}
 
+	/**
+	 * @return an immutable snapshot of the packages containing source code in this project
+	 */
 	public Set<String> getSourcePackages() {
-		Set<String> allSourcePackages = new HashSet<>();
-
 		verifyJavaProject();
 
 		if (!hasError()) {
 			try {
-				IPackageFragmentRoot[] allPackageFragmentRoots = javaProject.getAllPackageFragmentRoots();
-
-				for (IPackageFragmentRoot aPackageFragmentRoot : allPackageFragmentRoots) {
-					if (aPackageFragmentRoot.getKind() == IPackageFragmentRoot.K_SOURCE && aPackageFragmentRoot.getParent().getElementName().equals(project.getName())) {
-						allSourcePackages.addAll(getSourcePackages(aPackageFragmentRoot));
-					}
-				}
+				return SourcePackageIndex.getInstance().getSourcePackages(javaProject);
 			}
 			catch (JavaModelException theCause) {
-				errorMessage = "Could not extract source packages for project '" + project.getName() + theCause.getMessage();
+				setErrorMessage("Could not extract source packages for project '" + project.getName() + theCause.getMessage());
 			}
 		}
 
-		return allSourcePackages;
-	}
-
-	private Set<String> getSourcePackages(IPackageFragmentRoot thePackageFragmentRoot) throws JavaModelException {
-		Set<String> allSourcePackages = new HashSet<>();
-
-		for (IJavaElement aJavaElement : thePackageFragmentRoot.getChildren()) {
-			if (aJavaElement instanceof IPackageFragment) {
-				IPackageFragment aPackageFragment = (IPackageFragment) aJavaElement;
-
-				Arrays.stream(aPackageFragment.getChildren()).filter(theChild -> theChild instanceof ICompilationUnit).findAny()
-						.ifPresent(theCompilationUnit -> allSourcePackages.add(aPackageFragment.getElementName()));
-			}
-		}
-
-		return allSourcePackages;
+		return Collections.emptySet();
 	}
 
 	public Set<String> getImportedPackages() {
@@ -1073,60 +1307,19 @@ public class ProjectWrapper {
 
 		if (!hasError()) {
 			try {
-				IPackageFragmentRoot[] allPackageFragmentRoots = javaProject.getAllPackageFragmentRoots();
-
-				for (IPackageFragmentRoot aPackageFragmentRoot : allPackageFragmentRoots) {
-					if (aPackageFragmentRoot.getKind() == IPackageFragmentRoot.K_SOURCE && aPackageFragmentRoot.getParent().getElementName().equals(project.getName())) {
-						allImportedPackages.addAll(getImportedPackages(aPackageFragmentRoot));
-					}
-				}
-			}
-			catch (JavaModelException theCause) {
-				errorMessage = "Could not extract imported packages for project '" + project.getName() + theCause.getMessage();
-			}
-		}
-
-		return allImportedPackages;
-	}
-
-	private Set<String> getImportedPackages(IJavaElement theJavaElement) throws JavaModelException {
-		Set<String> allImportedPackages = new HashSet<>();
-
-		if (theJavaElement instanceof ICompilationUnit) {
-			ICompilationUnit aCompilationUnit = (ICompilationUnit) theJavaElement;
-
-			for (IImportDeclaration aImportDeclaration : aCompilationUnit.getImports()) {
-				allImportedPackages.add(extractPackage(aImportDeclaration));
+				allImportedPackages.addAll(ImportIndex.getInstance().getImportedPackages(javaProject));
 			}
-
-		}
-		else if (theJavaElement instanceof IParent) {
-			IParent aContainerElement = (IParent) theJavaElement;
-
-			for (IJavaElement aJavaElement : aContainerElement.getChildren()) {
-				allImportedPackages.addAll(getImportedPackages(aJavaElement));
+			catch (CoreException | IOException theCause) {
+				setErrorMessage("Could not extract imported packages for project '" + project.getName() + theCause.getMessage());
 			}
 		}
 
 		return allImportedPackages;
 	}
 
-	private String extractPackage(IImportDeclaration theImportDeclaration) throws JavaModelException {
-		final int skipLastElements = Flags.isStatic(theImportDeclaration.getFlags()) ? 2 : 1;
-
-		List<String> allImportTokens = new ArrayList<>(Arrays.asList(theImportDeclaration.getElementName().split("\\.")));
-		Collections.reverse(allImportTokens);
-
-		List<String> aImportPackageTokens = allImportTokens.stream().skip(skipLastElements).filter(thePackageToken -> Character.isLowerCase(thePackageToken.codePointAt(0)))
-				.collect(Collectors.toList());
-		Collections.reverse(aImportPackageTokens);
-
-		return aImportPackageTokens.stream().collect(Collectors.joining("."));
-	}
-
 	private void verifyJavaProject() {
 		if (!hasError() && javaProject == null) {
-			errorMessage = "project '" + project.getName() + "' is not a Java project";
+			setErrorMessage("project '" + project.getName() + "' is not a Java project");
 		}
 	}
 
@@ -1134,24 +1327,22 @@ public class ProjectWrapper {
 		return errorMessage != null;
 	}
 
+	/**
+	 * @return the message of the first error, all further modifications are skipped after it, <code>null</code> if
+	 *         there is no error
+	 */
 	public String getErrorMessage() {
 		return errorMessage;
 	}
 
-	private void addProtocolMessage(String theMessage) {
-		if (protocolMessage == null) {
-			protocolMessage = theMessage;
+	private void setErrorMessage(String theErrorMessage) {
+		if (errorMessage == null) {
+			errorMessage = theErrorMessage;
 		}
-		else {
-			protocolMessage += "\n" + theMessage;
-		}
-	}
-
-	public boolean hasProtocol() {
-		return protocolMessage != null;
+		SynchronizationReport.recordError(project.getName(), theErrorMessage);
 	}
 
-	public String getProtocolMessage() {
-		return protocolMessage;
+	private void addProtocolEntry(EntryType theType, String theValue) {
+		SynchronizationLog.record(theType, project.getName(), theValue);
 	}
 }
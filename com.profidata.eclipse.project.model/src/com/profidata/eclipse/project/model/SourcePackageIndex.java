@@ -0,0 +1,132 @@
+package com.profidata.eclipse.project.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Workspace wide index of the packages containing source code of each Java project. The packages of a project are
+ * determined on first access and kept until a Java element delta reports an added or removed package, compilation
+ * unit or source folder of the project.
+ */
+final class SourcePackageIndex {
+
+	private static final SourcePackageIndex INSTANCE = new SourcePackageIndex();
+
+	static SourcePackageIndex getInstance() {
+		return INSTANCE;
+	}
+
+	private final Map<String, Set<String>> sourcePackages = new ConcurrentHashMap<>();
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	private SourcePackageIndex() {
+		JavaCore.addElementChangedListener(new SourcePackageIndexUpdater(), ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * @return an immutable snapshot of the source packages of the given project
+	 */
+	Set<String> getSourcePackages(IJavaProject theJavaProject) throws JavaModelException {
+		String aProjectName = theJavaProject.getElementName();
+		Set<String> someSourcePackages = sourcePackages.get(aProjectName);
+
+		if (someSourcePackages == null) {
+			long aInvalidationCount = invalidationCount.get();
+
+			someSourcePackages = Collections.unmodifiableSet(collectSourcePackages(theJavaProject));
+
+			// do not cache packages which might have been changed while they were collected
+			if (aInvalidationCount == invalidationCount.get()) {
+				sourcePackages.put(aProjectName, someSourcePackages);
+			}
+		}
+
+		return someSourcePackages;
+	}
+
+	private Set<String> collectSourcePackages(IJavaProject theJavaProject) throws JavaModelException {
+		Set<String> allSourcePackages = new HashSet<>();
+
+		for (IPackageFragmentRoot aPackageFragmentRoot : theJavaProject.getAllPackageFragmentRoots()) {
+			if (aPackageFragmentRoot.getKind() == IPackageFragmentRoot.K_SOURCE && aPackageFragmentRoot.getParent().getElementName().equals(theJavaProject.getElementName())) {
+				for (IJavaElement aJavaElement : aPackageFragmentRoot.getChildren()) {
+					if (aJavaElement instanceof IPackageFragment) {
+						IPackageFragment aPackageFragment = (IPackageFragment) aJavaElement;
+
+						Arrays.stream(aPackageFragment.getChildren()).filter(theChild -> theChild instanceof ICompilationUnit).findAny()
+								.ifPresent(theCompilationUnit -> allSourcePackages.add(aPackageFragment.getElementName()));
+					}
+				}
+			}
+		}
+
+		return allSourcePackages;
+	}
+
+	private void invalidate(String theProjectName) {
+		invalidationCount.incrementAndGet();
+		sourcePackages.remove(theProjectName);
+	}
+
+	private class SourcePackageIndexUpdater implements IElementChangedListener {
+
+		private static final int PROJECT_STRUCTURE_FLAGS = IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLASSPATH_CHANGED
+				| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+		private static final int ROOT_STRUCTURE_FLAGS = IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+		@Override
+		public void elementChanged(ElementChangedEvent theEvent) {
+			for (IJavaElementDelta aProjectDelta : theEvent.getDelta().getAffectedChildren()) {
+				// also projects not cached yet, their packages might be collected right now
+				if (isStructureChanged(aProjectDelta)) {
+					invalidate(aProjectDelta.getElement().getElementName());
+				}
+			}
+		}
+
+		private boolean isStructureChanged(IJavaElementDelta theDelta) {
+			if (theDelta.getKind() == IJavaElementDelta.ADDED || theDelta.getKind() == IJavaElementDelta.REMOVED) {
+				return true;
+			}
+
+			switch (theDelta.getElement().getElementType()) {
+				case IJavaElement.JAVA_PROJECT:
+					if ((theDelta.getFlags() & PROJECT_STRUCTURE_FLAGS) != 0) {
+						return true;
+					}
+					break;
+
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if ((theDelta.getFlags() & ROOT_STRUCTURE_FLAGS) != 0) {
+						return true;
+					}
+					break;
+
+				case IJavaElement.PACKAGE_FRAGMENT:
+					break;
+
+				default:
+					// changes inside of compilation units do not change the source packages
+					return false;
+			}
+
+			return Arrays.stream(theDelta.getAffectedChildren()).anyMatch(this::isStructureChanged);
+		}
+	}
+}
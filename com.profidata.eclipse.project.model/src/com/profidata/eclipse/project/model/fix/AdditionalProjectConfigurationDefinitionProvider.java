@@ -1,128 +1,410 @@
 package com.profidata.eclipse.project.model.fix;
 
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
-import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.JavaCore;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonIOException;
 import com.profidata.eclipse.project.model.Activator;
 import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ProjectConfiguration;
 
 public class AdditionalProjectConfigurationDefinitionProvider {
 
-	private static final AdditionalProjectConfigurationDefinitionProvider INSTANCE = new AdditionalProjectConfigurationDefinitionProvider();
+	// editors usually write a file in several steps, so the file is reloaded once the changes have settled down
+	private static final long RELOAD_DELAY_MILLIS = 500;
 
-	public static AdditionalProjectConfigurationDefinitionProvider getInstance() {
-		return INSTANCE;
+	private static AdditionalProjectConfigurationDefinitionProvider instance;
+	// notified by whichever provider reloads the configuration file, dropped when the provider is disposed
+	private static final List<Runnable> libraryContainersListeners = new CopyOnWriteArrayList<>();
+
+	public static synchronized AdditionalProjectConfigurationDefinitionProvider getInstance() {
+		if (instance == null) {
+			instance = new AdditionalProjectConfigurationDefinitionProvider();
+		}
+		return instance;
+	}
+
+	/**
+	 * Adds a listener which is notified whenever the reloaded configuration file defines other library containers.
+	 */
+	public static void addLibraryContainersListener(Runnable theListener) {
+		libraryContainersListeners.add(theListener);
+	}
+
+	public static void removeLibraryContainersListener(Runnable theListener) {
+		libraryContainersListeners.remove(theListener);
+	}
+
+	/**
+	 * Stops watching the configuration files and removes all listeners, the provider is created again when it is asked
+	 * for the next time.
+	 */
+	public static synchronized void dispose() {
+		if (instance != null) {
+			instance.stop();
+			instance = null;
+		}
+		libraryContainersListeners.clear();
+	}
+
+	/**
+	 * The indexed configuration file together with its compiled lookup, replaced as a whole on reload.
+	 */
+	private static class ConfigurationSnapshot {
+		private static final ConfigurationSnapshot EMPTY = new ConfigurationSnapshot(null, null, Collections.emptyMap(), ProjectConfigurationLookup.EMPTY);
+
+		private final String executionEnvironment;
+		private final String junitLibraryPath;
+		private final Map<String, List<String>> libraryContainers;
+		private final ProjectConfigurationLookup lookup;
+
+		ConfigurationSnapshot(ProjectConfigurationFile theConfigurationFile) {
+			this(
+					theConfigurationFile.getExecutionEnvironment(),
+					theConfigurationFile.getJUnitLibraryPath(),
+					theConfigurationFile.getLibraryContainers(),
+					new ProjectConfigurationLookup(theConfigurationFile.getProjectConfigurationKeys(), theConfigurationFile::decode));
+		}
+
+		private ConfigurationSnapshot(
+				String theExecutionEnvironment,
+				String theJunitLibraryPath,
+				Map<String, List<String>> theLibraryContainers,
+				ProjectConfigurationLookup theLookup) {
+			executionEnvironment = theExecutionEnvironment;
+			junitLibraryPath = theJunitLibraryPath;
+			libraryContainers = theLibraryContainers;
+			lookup = theLookup;
+		}
+	}
+
+	/**
+	 * A configuration applied to a project, the description is compared to detect the changed configurations.
+	 */
+	private static class AppliedConfiguration {
+		private final ProjectConfiguration configuration;
+		private final String description;
+
+		AppliedConfiguration(ProjectConfiguration theConfiguration, String theDescription) {
+			configuration = theConfiguration;
+			description = theDescription;
+		}
 	}
 
 	private final IPath additionalProjectConfigurationPath;
-	private volatile AdditionalProjectConfigurations projectConfigurationDefinitions;
+	private final Path snapshotPath;
+	private final ProjectConfigurationFragments configurationFragments;
+	private final ScheduledExecutorService reloadExecutor;
+	private final List<ConfigurationFileWatcher> fileWatchers = new ArrayList<>();
+	private IResourceChangeListener resourceChangeListener;
+	private volatile ConfigurationSnapshot configurationSnapshot = ConfigurationSnapshot.EMPTY;
+	// configurations combined from the configuration file and the fragments
+	private final Map<String, ProjectConfiguration> resolvedConfigurations = new ConcurrentHashMap<>();
+	private ScheduledFuture<?> pendingReload;
+	private final Map<String, ScheduledFuture<?>> pendingFragmentReloads = new HashMap<>();
+	// the configurations applied to the Java projects, described when a project's configuration is looked up for the
+	// first time and updated by the reloads
+	private final Map<String, AppliedConfiguration> appliedConfigurations = new ConcurrentHashMap<>();
 
 	private AdditionalProjectConfigurationDefinitionProvider() {
-		this.additionalProjectConfigurationPath = ResourcesPlugin.getWorkspace().getRoot().getLocation()
-				.append(System.getProperty("extension.buildship.additional.project.configuration.path", ResourcesPlugin.getWorkspace().getRoot().getLocation().toString()))
+		IPath aWorkspaceLocation = ResourcesPlugin.getWorkspace().getRoot().getLocation();
+
+		this.additionalProjectConfigurationPath = aWorkspaceLocation
+				.append(System.getProperty("extension.buildship.additional.project.configuration.path", aWorkspaceLocation.toString()))
 				.append("AdditionalProjectConfiguration.json");
+		this.snapshotPath = getSnapshotPath();
+		this.configurationFragments = getConfigurationFragments(aWorkspaceLocation);
+		this.reloadExecutor = Executors.newSingleThreadScheduledExecutor(theRunnable -> {
+			Thread aThread = new Thread(theRunnable, "Reload AdditionalProjectConfiguration.json");
 
-		ResourcesPlugin.getWorkspace().addResourceChangeListener(new ProjectConfigurationResourceChangeReporter(), IResourceChangeEvent.POST_CHANGE);
+			aThread.setDaemon(true);
+			return aThread;
+		});
 
 		reloadProjectConfigurationDefinition();
+
+		// a file in the workspace directory but outside of the projects is no resource, so its changes are not reported
+		IFile aConfigurationFile = ResourcesPlugin.getWorkspace().getRoot().getFileForLocation(additionalProjectConfigurationPath);
+
+		if (aConfigurationFile != null) {
+			resourceChangeListener = new ProjectConfigurationResourceChangeReporter(aConfigurationFile.getFullPath());
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(resourceChangeListener, IResourceChangeEvent.POST_CHANGE);
+		}
+		else {
+			startFileWatcher(new ConfigurationFileWatcher(additionalProjectConfigurationPath.toFile().toPath(), this::scheduleReload));
+		}
+
+		if (configurationFragments != null) {
+			startFileWatcher(new ConfigurationFileWatcher(configurationFragments.getDirectory(), ProjectConfigurationFragments::isFragment, this::scheduleFragmentReload));
+		}
 	}
 
-	private void reloadProjectConfigurationDefinition() {
+	private void startFileWatcher(ConfigurationFileWatcher theFileWatcher) {
+		fileWatchers.add(theFileWatcher);
+		theFileWatcher.start();
+	}
+
+	private void stop() {
+		if (resourceChangeListener != null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(resourceChangeListener);
+		}
+		fileWatchers.forEach(ConfigurationFileWatcher::stop);
+		reloadExecutor.shutdownNow();
+	}
+
+	private static ProjectConfigurationFragments getConfigurationFragments(IPath theWorkspaceLocation) {
+		String aFragmentsPath = System.getProperty("extension.buildship.additional.project.configuration.fragments.path");
+
+		if (aFragmentsPath == null) {
+			return null;
+		}
+
+		IPath aFragmentsLocation = org.eclipse.core.runtime.Path.fromOSString(aFragmentsPath);
+
+		if (!aFragmentsLocation.isAbsolute()) {
+			aFragmentsLocation = theWorkspaceLocation.append(aFragmentsLocation);
+		}
+		return new ProjectConfigurationFragments(aFragmentsLocation.toFile().toPath());
+	}
+
+	private synchronized void scheduleReload() {
+		if (pendingReload != null) {
+			pendingReload.cancel(false);
+		}
+		pendingReload = reloadExecutor.schedule(() -> {
+			Map<String, List<String>> allPreviousLibraryContainers = configurationSnapshot.libraryContainers;
+
+			Activator.info("json file: " + additionalProjectConfigurationPath.toOSString() + " modified -> reloading it");
+			if (reloadProjectConfigurationDefinition()) {
+				applyChangedConfigurations(theProjectName -> true);
+			}
+			if (!allPreviousLibraryContainers.equals(configurationSnapshot.libraryContainers)) {
+				libraryContainersListeners.forEach(Runnable::run);
+			}
+		}, RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @param theFileName
+	 *            the name of the changed fragment, <code>null</code> if any fragment might have been changed
+	 */
+	private synchronized void scheduleFragmentReload(Path theFileName) {
+		String aGroup = theFileName != null ? ProjectConfigurationFragments.getGroup(theFileName) : null;
+		ScheduledFuture<?> aPendingReload = pendingFragmentReloads.get(aGroup);
+
+		if (aPendingReload != null) {
+			aPendingReload.cancel(false);
+		}
+		pendingFragmentReloads.put(aGroup, reloadExecutor.schedule(() -> {
+			Predicate<String> aAffectedProjectFilter = theProjectName -> aGroup == null || ProjectConfigurationFragments.isInGroup(theProjectName, aGroup);
+
+			Activator.info("json file: " + (theFileName != null ? theFileName : "*.json") + " in " + configurationFragments.getDirectory() + " modified -> reloading it");
+			configurationFragments.invalidate(aGroup);
+			resolvedConfigurations.keySet().removeIf(aAffectedProjectFilter);
+			applyChangedConfigurations(aAffectedProjectFilter);
+		}, RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * @return <code>false</code> if the json file could not be read
+	 */
+	private boolean reloadProjectConfigurationDefinition() {
 		if (additionalProjectConfigurationPath.toFile().exists()) {
-			try (Reader aReader = new FileReader(additionalProjectConfigurationPath.toOSString())) {
-				projectConfigurationDefinitions = new Gson().fromJson(aReader, AdditionalProjectConfigurations.class);
+			try {
+				setConfigurationSnapshot(new ConfigurationSnapshot(ProjectConfigurationFile.load(additionalProjectConfigurationPath.toFile().toPath(), snapshotPath)));
 			}
-			catch (JsonIOException | IOException cause) {
-				projectConfigurationDefinitions = null;
-				Activator.error("could not read json file: " + additionalProjectConfigurationPath.toOSString());
+			catch (IOException cause) {
+				setConfigurationSnapshot(ConfigurationSnapshot.EMPTY);
+				Activator.error("could not read json file: " + additionalProjectConfigurationPath.toOSString() + ": " + cause.getMessage());
+				return false;
 			}
 		}
 		else {
-			this.projectConfigurationDefinitions = null;
+			setConfigurationSnapshot(ConfigurationSnapshot.EMPTY);
 			Activator.info("json file does not exist: " + this.additionalProjectConfigurationPath.toOSString());
 		}
+		return true;
+	}
+
+	private void setConfigurationSnapshot(ConfigurationSnapshot theSnapshot) {
+		configurationSnapshot = theSnapshot;
+		resolvedConfigurations.clear();
+	}
+
+	/**
+	 * @return the location of the index snapshot in the workspace meta data or <code>null</code> if there is none
+	 */
+	private static Path getSnapshotPath() {
+		if (Activator.getDefault() == null) {
+			return null;
+		}
+
+		try {
+			return Activator.getDefault().getStateLocation().append("AdditionalProjectConfiguration.index").toFile().toPath();
+		}
+		catch (IllegalStateException theCause) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the given configuration together with the description of everything which is applied to a project
+	 */
+	private AppliedConfiguration describe(ProjectConfiguration theConfiguration) {
+		String aDescription = ProjectFingerprint.toCanonicalString(theConfiguration) + ";resolvedExecutionEnvironment=" + getExecutionEnvironment(theConfiguration);
+
+		return new AppliedConfiguration(theConfiguration, aDescription);
+	}
+
+	/**
+	 * Fixes the selected Java projects whose resolved configuration differs from the applied one. A project without an
+	 * applied configuration has not been looked up yet, so its synchronization will apply the current configuration.
+	 */
+	private void applyChangedConfigurations(Predicate<String> theProjectNameFilter) {
+		Map<IProject, ProjectConfiguration> allChangedProjects = new LinkedHashMap<>();
+
+		for (String aProjectName : new ArrayList<>(appliedConfigurations.keySet())) {
+			if (!theProjectNameFilter.test(aProjectName)) {
+				continue;
+			}
+
+			IProject aProject = ResourcesPlugin.getWorkspace().getRoot().getProject(aProjectName);
+
+			if (!isJavaProject(aProject)) {
+				appliedConfigurations.remove(aProjectName);
+				continue;
+			}
+
+			AppliedConfiguration aConfiguration = describe(lookup(aProjectName));
+			AppliedConfiguration aAppliedConfiguration = appliedConfigurations.put(aProjectName, aConfiguration);
+
+			if (aAppliedConfiguration != null && !aAppliedConfiguration.description.equals(aConfiguration.description)) {
+				// the previous configuration is needed to revert the entries which are no longer configured
+				allChangedProjects.put(aProject, aAppliedConfiguration.configuration);
+			}
+		}
+
+		if (!allChangedProjects.isEmpty()) {
+			Activator.info("additional configuration of " + allChangedProjects.size() + " project(s) changed -> applying it");
+			new ProjectConfigurationUpdateJob(allChangedProjects).schedule();
+		}
+	}
+
+	private static boolean isJavaProject(IProject theProject) {
+		try {
+			return theProject.isOpen() && theProject.hasNature(JavaCore.NATURE_ID);
+		}
+		catch (CoreException theCause) {
+			return false;
+		}
 	}
 
 	public String findExecutionEnvironment(String theProjectName) {
-		AdditionalProjectConfigurations allConfigurations = projectConfigurationDefinitions;
-		String aExecutionEnvironment = find(allConfigurations, theProjectName).executionEnvironment;
+		return getExecutionEnvironment(find(theProjectName));
+	}
+
+	private String getExecutionEnvironment(ProjectConfiguration theConfiguration) {
+		String aExecutionEnvironment = theConfiguration.executionEnvironment;
 
-		if (aExecutionEnvironment == null && allConfigurations != null) {
-			aExecutionEnvironment = allConfigurations.executionEnvironment;
+		if (aExecutionEnvironment == null) {
+			aExecutionEnvironment = configurationSnapshot.executionEnvironment;
 		}
 
 		return aExecutionEnvironment;
 	}
 
 	public String findJUnitLibraryPath(String theProjectName) {
-		AdditionalProjectConfigurations allConfigurations = projectConfigurationDefinitions;
+		return configurationSnapshot.junitLibraryPath;
+	}
 
-		if (allConfigurations != null) {
-			return allConfigurations.junitLibraryPath;
-		}
-		return null;
+	/**
+	 * @return the symbolic names of the bundles provided by the given library container or <code>null</code> if the
+	 *         container is not defined
+	 */
+	public List<String> findLibraryContainerBundles(String theContainerName) {
+		return configurationSnapshot.libraryContainers.get(theContainerName);
 	}
 
+	/**
+	 * @return the configuration resolved from all entries matching the project name (exact name or name pattern like
+	 *         <code>com.xentis.*</code>) in the configuration file and the fragments of the project's groups, the
+	 *         returned configuration must not be modified
+	 */
 	public ProjectConfiguration find(String theProjectName) {
-		return find(projectConfigurationDefinitions, theProjectName);
+		ProjectConfiguration aConfiguration = lookup(theProjectName);
+
+		// remembered so that a reload only fixes the projects whose configuration has been changed
+		appliedConfigurations.computeIfAbsent(theProjectName, theName -> describe(aConfiguration));
+		return aConfiguration;
 	}
 
-	private ProjectConfiguration find(AdditionalProjectConfigurations theConfigurations, String theProjectName) {
-		if (theConfigurations != null && theConfigurations.projectConfigurations.containsKey(theProjectName)) {
-			return theConfigurations.projectConfigurations.get(theProjectName);
+	private ProjectConfiguration lookup(String theProjectName) {
+		if (configurationFragments == null) {
+			return configurationSnapshot.lookup.find(theProjectName);
 		}
+		return resolvedConfigurations.computeIfAbsent(theProjectName, this::resolve);
+	}
+
+	private ProjectConfiguration resolve(String theProjectName) {
+		List<ProjectConfiguration> allConfigurations = new ArrayList<>();
+
+		// the fragments are more specific than the configuration file
+		allConfigurations.add(configurationSnapshot.lookup.find(theProjectName));
+		allConfigurations.addAll(configurationFragments.find(theProjectName));
 
-		return new ProjectConfiguration(null);
+		return allConfigurations.size() == 1 ? allConfigurations.get(0) : ProjectConfigurationLookup.merge(allConfigurations);
 	}
 
 	private class ProjectConfigurationResourceChangeReporter implements IResourceChangeListener {
+		private final IPath configurationFilePath;
+
+		/**
+		 * @param theConfigurationFilePath
+		 *            the full path of the configuration file in the workspace
+		 */
+		ProjectConfigurationResourceChangeReporter(IPath theConfigurationFilePath) {
+			configurationFilePath = theConfigurationFilePath;
+		}
 
 		@Override
 		public void resourceChanged(IResourceChangeEvent theEvent) {
 			switch (theEvent.getType()) {
 				case IResourceChangeEvent.POST_CHANGE:
-					try {
-						theEvent.getDelta().accept(new ProjectConfigurationResourceVisitor());
-					}
-					catch (CoreException e) {
-						Activator.error("could not read json file: " + e.getMessage());
+					// only the delta of the configuration file is of interest, no need to visit the whole delta tree
+					IResourceDelta aConfigurationFileDelta = theEvent.getDelta().findMember(configurationFilePath);
+
+					if (aConfigurationFileDelta != null && isChanged(aConfigurationFileDelta)) {
+						scheduleReload();
 					}
 					break;
 				default:
 					break;
 			}
 		}
-	}
 
-	private class ProjectConfigurationResourceVisitor implements IResourceDeltaVisitor {
-		@Override
-		public boolean visit(IResourceDelta theResourceDelta) {
-			switch (theResourceDelta.getKind()) {
-				case IResourceDelta.CHANGED:
-					IPath aChangeResourcePath = ResourcesPlugin.getWorkspace().getRoot().getLocation().append(theResourceDelta.getResource().getFullPath());
-
-					if (AdditionalProjectConfigurationDefinitionProvider.this.additionalProjectConfigurationPath.equals(aChangeResourcePath)) {
-						Activator.info("json file: " + AdditionalProjectConfigurationDefinitionProvider.this.additionalProjectConfigurationPath.toOSString() + " modified -> reloading it");
-						reloadProjectConfigurationDefinition();
-						return false;
-					}
-					break;
-				default:
-					break;
-			}
-			return true; // visit the children
+		private boolean isChanged(IResourceDelta theDelta) {
+			return theDelta.getKind() != IResourceDelta.CHANGED || (theDelta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0;
 		}
 	}
-
 }
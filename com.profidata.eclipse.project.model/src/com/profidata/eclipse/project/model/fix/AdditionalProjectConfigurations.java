@@ -1,33 +1,57 @@
 package com.profidata.eclipse.project.model.fix;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 public class AdditionalProjectConfigurations {
 	public final String executionEnvironment;
 	public final String junitLibraryPath;
 	public final Map<String, ProjectConfiguration> projectConfigurations = new HashMap<>();
+	/**
+	 * Library container name -> symbolic names of the bundles provided by the container
+	 * <code>com.profidata.eclipse.LIBRARY_CONTAINER/&lt;name&gt;</code>
+	 */
+	public final Map<String, List<String>> libraryContainers = new HashMap<>();
 
 	public static class ProjectConfiguration {
+		/**
+		 * Shared configuration of all projects without any additional configuration
+		 */
+		public static final ProjectConfiguration EMPTY = new ProjectConfiguration(null, null, Collections.emptySet(), Collections.emptySet(), Collections.emptyList());
+
 		public final String executionEnvironment;
 
 		public final String encoding;
-		public final Set<String> additionalPackageDependencies = new HashSet<>();
-		public final Set<ClasspathEntry> additionalClasspathEntries = new HashSet<>();
+		public final Set<String> additionalPackageDependencies;
+		public final Set<ClasspathEntry> additionalClasspathEntries;
 
-		public final List<String> additionalBundles = new ArrayList<>();
+		public final List<String> additionalBundles;
 
 		public ProjectConfiguration(String theEncoding) {
 			this(theEncoding, null);
 		}
 
 		public ProjectConfiguration(String theEncoding, String theExecutionEnvironment) {
+			this(theEncoding, theExecutionEnvironment, new HashSet<>(), new HashSet<>(), new ArrayList<>());
+		}
+
+		public ProjectConfiguration(
+				String theEncoding,
+				String theExecutionEnvironment,
+				Set<String> theAdditionalPackageDependencies,
+				Set<ClasspathEntry> theAdditionalClasspathEntries,
+				List<String> theAdditionalBundles) {
 			encoding = theEncoding;
 			executionEnvironment = theExecutionEnvironment;
+			additionalPackageDependencies = theAdditionalPackageDependencies;
+			additionalClasspathEntries = theAdditionalClasspathEntries;
+			additionalBundles = theAdditionalBundles;
 		}
 	}
 
@@ -53,6 +77,25 @@ public class AdditionalProjectConfigurations {
 			this.path = thePath;
 			this.exported = theExported;
 		}
+
+		@Override
+		public boolean equals(Object theOther) {
+			if (this == theOther) {
+				return true;
+			}
+			if (!(theOther instanceof ClasspathEntry)) {
+				return false;
+			}
+
+			ClasspathEntry aOther = (ClasspathEntry) theOther;
+
+			return type == aOther.type && Objects.equals(path, aOther.path) && exported == aOther.exported && Objects.equals(accessRules, aOther.accessRules);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, path, exported);
+		}
 	}
 
 	public static class AccessRule {
@@ -63,6 +106,25 @@ public class AdditionalProjectConfigurations {
 			pattern = thePattern;
 			kind = theKind;
 		}
+
+		@Override
+		public boolean equals(Object theOther) {
+			if (this == theOther) {
+				return true;
+			}
+			if (!(theOther instanceof AccessRule)) {
+				return false;
+			}
+
+			AccessRule aOther = (AccessRule) theOther;
+
+			return Objects.equals(pattern, aOther.pattern) && kind == aOther.kind;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(pattern, kind);
+		}
 	}
 
 	public AdditionalProjectConfigurations(String theExecutionEnvironment) {
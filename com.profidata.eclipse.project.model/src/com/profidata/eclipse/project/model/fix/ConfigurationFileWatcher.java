@@ -0,0 +1,125 @@
+package com.profidata.eclipse.project.model.fix;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.profidata.eclipse.project.model.Activator;
+
+/**
+ * Watches the files of a directory with the file system's {@link WatchService} and reports each creation,
+ * modification or deletion of them. The directory is watched by a daemon thread.
+ */
+final class ConfigurationFileWatcher {
+	private final Path directory;
+	private final Predicate<Path> fileFilter;
+	private final Consumer<Path> changeHandler;
+	private WatchService watchService;
+
+	/**
+	 * Watches a single file.
+	 */
+	ConfigurationFileWatcher(Path theFile, Runnable theChangeHandler) {
+		this(theFile.getParent(), theFileName -> theFileName.equals(theFile.getFileName()), theFileName -> theChangeHandler.run());
+	}
+
+	/**
+	 * @param theFileFilter
+	 *            selects the names of the files to watch
+	 * @param theChangeHandler
+	 *            receives the name of a changed file, <code>null</code> if changes have been lost and any file might
+	 *            have been changed
+	 */
+	ConfigurationFileWatcher(Path theDirectory, Predicate<Path> theFileFilter, Consumer<Path> theChangeHandler) {
+		directory = theDirectory;
+		fileFilter = theFileFilter;
+		changeHandler = theChangeHandler;
+	}
+
+	void start() {
+		if (directory == null || !Files.isDirectory(directory)) {
+			Activator.info("directory of json files does not exist, changes are not watched: " + directory);
+			return;
+		}
+
+		try {
+			WatchService aWatchService = FileSystems.getDefault().newWatchService();
+
+			directory.register(aWatchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+			Thread aWatchThread = new Thread(() -> watch(aWatchService), "Watch " + directory);
+
+			aWatchThread.setDaemon(true);
+			aWatchThread.start();
+			synchronized (this) {
+				watchService = aWatchService;
+			}
+		}
+		catch (IOException theCause) {
+			Activator.error("could not watch json files in: " + directory + ": " + theCause.getMessage());
+		}
+	}
+
+	/**
+	 * Stops watching, the watching thread terminates as soon as the watch service has been closed.
+	 */
+	synchronized void stop() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			}
+			catch (IOException theCause) {
+				// nothing to do, watching has been stopped anyway
+			}
+			watchService = null;
+		}
+	}
+
+	private void watch(WatchService theWatchService) {
+		try {
+			boolean isValid = true;
+
+			while (isValid) {
+				WatchKey aWatchKey = theWatchService.take();
+				Set<Path> allChangedFiles = new LinkedHashSet<>();
+
+				for (WatchEvent<?> aEvent : aWatchKey.pollEvents()) {
+					if (aEvent.kind() == StandardWatchEventKinds.OVERFLOW) {
+						// events have been lost, so any file might have been changed
+						allChangedFiles.add(null);
+					}
+					else if (fileFilter.test((Path) aEvent.context())) {
+						allChangedFiles.add((Path) aEvent.context());
+					}
+				}
+				allChangedFiles.forEach(changeHandler);
+				isValid = aWatchKey.reset();
+			}
+			Activator.info("directory of json files is not accessible anymore, changes are not watched: " + directory);
+		}
+		catch (InterruptedException theCause) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ClosedWatchServiceException theCause) {
+			// watching has been stopped
+		}
+		finally {
+			try {
+				theWatchService.close();
+			}
+			catch (IOException theCause) {
+				// nothing to do, watching has been stopped anyway
+			}
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.profidata.eclipse.project.model.fix;
 
+import java.util.Objects;
 import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
@@ -13,29 +14,46 @@ import org.eclipse.jdt.core.JavaCore;
 import com.profidata.eclipse.project.model.Activator;
 import com.profidata.eclipse.project.model.ProjectWrapper;
 import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.AccessRule;
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ClasspathEntry;
 import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ProjectConfiguration;
+import com.profidata.eclipse.project.model.monitor.MutationRecording;
+import com.profidata.eclipse.project.model.monitor.MutationRecording.Operation;
 
 public class FixProjectDefinition {
 	private final ProjectWrapper projectWrapper;
 	private final IProject project;
 	private final ProjectConfiguration additionalConfiguration;
+	private final ProjectConfiguration appliedConfiguration;
 
 	public static void run(ProjectWrapper theProject) {
 		run(theProject, false);
 	}
 
 	public static void run(ProjectWrapper theProject, boolean theAddJunitLibraryPath) {
-		new FixProjectDefinition(theProject).execute(theAddJunitLibraryPath);
+		new FixProjectDefinition(theProject, null).execute(theAddJunitLibraryPath);
 	}
 
-	private FixProjectDefinition(ProjectWrapper theProjectWrapper) {
+	/**
+	 * Applies the current configuration to a project fixed before with the given configuration, its classpath entries
+	 * which are no longer configured are removed.
+	 */
+	static void update(ProjectWrapper theProject, boolean theAddJunitLibraryPath, ProjectConfiguration theAppliedConfiguration) {
+		new FixProjectDefinition(theProject, theAppliedConfiguration).execute(theAddJunitLibraryPath);
+	}
+
+	private FixProjectDefinition(ProjectWrapper theProjectWrapper, ProjectConfiguration theAppliedConfiguration) {
 		projectWrapper = theProjectWrapper;
 		project = theProjectWrapper.getProject();
 		additionalConfiguration = AdditionalProjectConfigurationDefinitionProvider.getInstance().find(project.getName());
+		appliedConfiguration = theAppliedConfiguration;
 	}
 
 	private void execute(boolean theAddJunitLibraryPath) {
 		setDefaultCharset();
+
+		// collect all classpath modifications and write the classpath only once
+		projectWrapper.beginClasspathChanges();
+		revertClasspath();
 		enhanceClasspath();
 
 		if (theAddJunitLibraryPath) {
@@ -43,6 +61,7 @@ public class FixProjectDefinition {
 		}
 
 		projectWrapper.sortClasspath();
+		projectWrapper.commitClasspathChanges();
 	}
 
 	private void setDefaultCharset() {
@@ -52,7 +71,10 @@ public class FixProjectDefinition {
 				String aDefaultCharset = projectWrapper.getProject().getDefaultCharset();
 
 				if (!additionalConfiguration.encoding.equals(aDefaultCharset)) {
-					project.setDefaultCharset(additionalConfiguration.encoding, null);
+					try (MutationRecording aRecording = MutationRecording.start(Operation.SET_DEFAULT_CHARSET, project).detail(additionalConfiguration.encoding)) {
+						project.setDefaultCharset(additionalConfiguration.encoding, null);
+						aRecording.succeeded();
+					}
 				}
 			}
 			catch (CoreException theCause) {
@@ -61,26 +83,35 @@ public class FixProjectDefinition {
 		}
 	}
 
+	private void revertClasspath() {
+		if (appliedConfiguration != null) {
+			// a changed entry is removed as well, it is added again with its new definition
+			appliedConfiguration.additionalClasspathEntries.stream()
+					.filter(theClasspathEntry -> !additionalConfiguration.additionalClasspathEntries.contains(theClasspathEntry))
+					.map(this::getClasspathEntryPath)
+					.filter(Objects::nonNull)
+					.forEach(projectWrapper::removeClasspathEntry);
+		}
+	}
+
 	private void enhanceClasspath() {
 		final IClasspathAttribute[] NO_EXTRA_ATTRIBUTES = {};
 
 		additionalConfiguration.additionalClasspathEntries.forEach(theClasspathEntry -> {
 			final IAccessRule[] someAccessRules = getAccessRules(theClasspathEntry.accessRules);
+			IPath aPath = getClasspathEntryPath(theClasspathEntry);
 
 			switch (theClasspathEntry.type) {
 				case Library:
-					IPath aLibraryPath = project.getLocation().append(theClasspathEntry.path);
-					projectWrapper.addClasspathEntry(theProject -> JavaCore.newLibraryEntry(aLibraryPath, null, null, someAccessRules, NO_EXTRA_ATTRIBUTES, theClasspathEntry.exported));
+					projectWrapper.addClasspathEntry(theProject -> JavaCore.newLibraryEntry(aPath, null, null, someAccessRules, NO_EXTRA_ATTRIBUTES, theClasspathEntry.exported));
 					break;
 
 				case Project:
-					IPath aProjectPath = Path.fromPortableString("/" + theClasspathEntry.path);
-					projectWrapper.addClasspathEntry(theProject -> JavaCore.newProjectEntry(aProjectPath, someAccessRules, false, NO_EXTRA_ATTRIBUTES, theClasspathEntry.exported));
+					projectWrapper.addClasspathEntry(theProject -> JavaCore.newProjectEntry(aPath, someAccessRules, false, NO_EXTRA_ATTRIBUTES, theClasspathEntry.exported));
 					break;
 
 				case Container:
-					IPath aContainerPath = Path.fromPortableString(theClasspathEntry.path);
-					projectWrapper.addClasspathEntry(theProject -> JavaCore.newContainerEntry(aContainerPath, someAccessRules, null, theClasspathEntry.exported));
+					projectWrapper.addClasspathEntry(theProject -> JavaCore.newContainerEntry(aPath, someAccessRules, null, theClasspathEntry.exported));
 					break;
 
 				default:
@@ -89,6 +120,22 @@ public class FixProjectDefinition {
 		});
 	}
 
+	private IPath getClasspathEntryPath(ClasspathEntry theClasspathEntry) {
+		switch (theClasspathEntry.type) {
+			case Library:
+				return project.getLocation().append(theClasspathEntry.path);
+
+			case Project:
+				return Path.fromPortableString("/" + theClasspathEntry.path);
+
+			case Container:
+				return Path.fromPortableString(theClasspathEntry.path);
+
+			default:
+				return null;
+		}
+	}
+
 	private IAccessRule[] getAccessRules(Set<AccessRule> theAccessRules) {
 		final IAccessRule[] NO_ACCESS_RULES = {};
 
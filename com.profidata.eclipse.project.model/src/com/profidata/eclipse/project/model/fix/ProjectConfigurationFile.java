@@ -0,0 +1,467 @@
+package com.profidata.eclipse.project.model.fix;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.profidata.eclipse.project.model.Activator;
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ProjectConfiguration;
+
+/**
+ * Index of an <code>AdditionalProjectConfiguration.json</code> file. The file is scanned once to record the byte range
+ * of each project configuration, a configuration is only decoded when it is asked for. The index is cached in a
+ * binary snapshot file and reused as long as the json file has not been changed.
+ */
+final class ProjectConfigurationFile {
+	private static final Gson GSON = new Gson();
+	private static final int SNAPSHOT_MAGIC = 0x50434658;
+	private static final int SNAPSHOT_VERSION = 2;
+	private static final Type LIBRARY_CONTAINERS_TYPE = new TypeToken<Map<String, List<String>>>() {}.getType();
+
+	private final Path file;
+	// a fragment only contains project configurations
+	private final boolean fragment;
+	private final long fileLength;
+	private final long fileLastModified;
+	private final String executionEnvironment;
+	private final String junitLibraryPath;
+	private final Map<String, List<String>> libraryContainers;
+	// project name (pattern) -> offset and length of its configuration in the file
+	private final Map<String, long[]> projectConfigurationRanges;
+
+	private ProjectConfigurationFile(
+			Path theFile,
+			boolean theFragment,
+			long theFileLength,
+			long theFileLastModified,
+			String theExecutionEnvironment,
+			String theJunitLibraryPath,
+			Map<String, List<String>> theLibraryContainers,
+			Map<String, long[]> theProjectConfigurationRanges) {
+		file = theFile;
+		fragment = theFragment;
+		fileLength = theFileLength;
+		fileLastModified = theFileLastModified;
+		executionEnvironment = theExecutionEnvironment;
+		junitLibraryPath = theJunitLibraryPath;
+		libraryContainers = theLibraryContainers != null ? theLibraryContainers : Collections.emptyMap();
+		projectConfigurationRanges = theProjectConfigurationRanges;
+	}
+
+	/**
+	 * @param theSnapshotFile
+	 *            the snapshot of the index, it is used if it matches the json file and written otherwise
+	 */
+	static ProjectConfigurationFile load(Path theFile, Path theSnapshotFile) throws IOException {
+		long aFileLength = Files.size(theFile);
+		long aFileLastModified = Files.getLastModifiedTime(theFile).toMillis();
+		ProjectConfigurationFile aConfigurationFile = readSnapshot(theFile, aFileLength, aFileLastModified, theSnapshotFile);
+
+		if (aConfigurationFile == null) {
+			aConfigurationFile = new Scanner(Files.readAllBytes(theFile)).scan(theFile, aFileLastModified);
+			aConfigurationFile.writeSnapshot(theSnapshotFile);
+		}
+		return aConfigurationFile;
+	}
+
+	/**
+	 * Loads a configuration fragment, its content has the structure of the <code>projectConfigurations</code> of a
+	 * configuration file.
+	 */
+	static ProjectConfigurationFile loadFragment(Path theFile) throws IOException {
+		long aFileLastModified = Files.getLastModifiedTime(theFile).toMillis();
+
+		return new Scanner(Files.readAllBytes(theFile)).scanFragment(theFile, aFileLastModified);
+	}
+
+	String getExecutionEnvironment() {
+		return executionEnvironment;
+	}
+
+	String getJUnitLibraryPath() {
+		return junitLibraryPath;
+	}
+
+	Map<String, List<String>> getLibraryContainers() {
+		return Collections.unmodifiableMap(libraryContainers);
+	}
+
+	Set<String> getProjectConfigurationKeys() {
+		return Collections.unmodifiableSet(projectConfigurationRanges.keySet());
+	}
+
+	/**
+	 * @return the decoded configuration or <code>null</code> if it could not be read
+	 */
+	ProjectConfiguration decode(String theKey) {
+		long[] aRange = projectConfigurationRanges.get(theKey);
+
+		if (aRange == null) {
+			return null;
+		}
+
+		try (RandomAccessFile aFile = new RandomAccessFile(file.toFile(), "r")) {
+			if (aFile.length() != fileLength || Files.getLastModifiedTime(file).toMillis() != fileLastModified) {
+				// the file is indexed again as soon as its change has been reported, until then the configuration is
+				// decoded from the current content
+				return decodeChanged(theKey);
+			}
+
+			byte[] aConfiguration = new byte[(int) aRange[1]];
+
+			aFile.seek(aRange[0]);
+			aFile.readFully(aConfiguration);
+			return GSON.fromJson(new String(aConfiguration, StandardCharsets.UTF_8), ProjectConfiguration.class);
+		}
+		catch (IOException | JsonParseException theCause) {
+			Activator.error("could not read configuration '" + theKey + "' from json file: " + file + ": " + theCause.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Decodes the configuration from the current content of the changed file, it is <code>null</code> if the
+	 * configuration has been removed.
+	 */
+	private ProjectConfiguration decodeChanged(String theKey) throws IOException {
+		byte[] aContent = Files.readAllBytes(file);
+		Scanner aScanner = new Scanner(aContent);
+		ProjectConfigurationFile aChangedFile = fragment ? aScanner.scanFragment(file, 0) : aScanner.scan(file, 0);
+		long[] aRange = aChangedFile.projectConfigurationRanges.get(theKey);
+
+		if (aRange == null) {
+			return null;
+		}
+		return GSON.fromJson(new String(aContent, (int) aRange[0], (int) aRange[1], StandardCharsets.UTF_8), ProjectConfiguration.class);
+	}
+
+	private static ProjectConfigurationFile readSnapshot(Path theFile, long theFileLength, long theFileLastModified, Path theSnapshotFile) {
+		if (theSnapshotFile == null || !Files.isRegularFile(theSnapshotFile)) {
+			return null;
+		}
+
+		try (DataInputStream aInput = new DataInputStream(new BufferedInputStream(Files.newInputStream(theSnapshotFile)))) {
+			if (aInput.readInt() != SNAPSHOT_MAGIC || aInput.readInt() != SNAPSHOT_VERSION || !aInput.readUTF().equals(theFile.toString())
+					|| aInput.readLong() != theFileLength || aInput.readLong() != theFileLastModified) {
+				return null;
+			}
+
+			String aExecutionEnvironment = readOptionalString(aInput);
+			String aJunitLibraryPath = readOptionalString(aInput);
+			Map<String, List<String>> allLibraryContainers = GSON.fromJson(aInput.readUTF(), LIBRARY_CONTAINERS_TYPE);
+			int aCount = aInput.readInt();
+			Map<String, long[]> allRanges = new LinkedHashMap<>();
+
+			for (int i = 0; i < aCount; i++) {
+				allRanges.put(aInput.readUTF(), new long[] { aInput.readLong(), aInput.readLong() });
+			}
+			return new ProjectConfigurationFile(theFile, false, theFileLength, theFileLastModified, aExecutionEnvironment, aJunitLibraryPath, allLibraryContainers, allRanges);
+		}
+		catch (IOException | JsonParseException theCause) {
+			// an unreadable snapshot is replaced by a new one
+			return null;
+		}
+	}
+
+	private void writeSnapshot(Path theSnapshotFile) {
+		if (theSnapshotFile == null) {
+			return;
+		}
+
+		try {
+			Path aTemporaryFile = theSnapshotFile.resolveSibling(theSnapshotFile.getFileName() + ".tmp");
+
+			Files.createDirectories(theSnapshotFile.getParent());
+			try (DataOutputStream aOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(aTemporaryFile)))) {
+				aOutput.writeInt(SNAPSHOT_MAGIC);
+				aOutput.writeInt(SNAPSHOT_VERSION);
+				aOutput.writeUTF(file.toString());
+				aOutput.writeLong(fileLength);
+				aOutput.writeLong(fileLastModified);
+				writeOptionalString(aOutput, executionEnvironment);
+				writeOptionalString(aOutput, junitLibraryPath);
+				aOutput.writeUTF(GSON.toJson(libraryContainers, LIBRARY_CONTAINERS_TYPE));
+				aOutput.writeInt(projectConfigurationRanges.size());
+				for (Map.Entry<String, long[]> aRange : projectConfigurationRanges.entrySet()) {
+					aOutput.writeUTF(aRange.getKey());
+					aOutput.writeLong(aRange.getValue()[0]);
+					aOutput.writeLong(aRange.getValue()[1]);
+				}
+			}
+			Files.move(aTemporaryFile, theSnapshotFile, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException theCause) {
+			Activator.info("could not write index of json file: " + theSnapshotFile + ": " + theCause.getMessage());
+		}
+	}
+
+	private static String readOptionalString(DataInputStream theInput) throws IOException {
+		return theInput.readBoolean() ? theInput.readUTF() : null;
+	}
+
+	private static void writeOptionalString(DataOutputStream theOutput, String theValue) throws IOException {
+		theOutput.writeBoolean(theValue != null);
+		if (theValue != null) {
+			theOutput.writeUTF(theValue);
+		}
+	}
+
+	/**
+	 * Scans the structure of the json file without building any objects for the project configurations.
+	 */
+	private static class Scanner {
+		private final byte[] content;
+		private int position;
+
+		Scanner(byte[] theContent) {
+			content = theContent;
+		}
+
+		ProjectConfigurationFile scan(Path theFile, long theFileLastModified) throws IOException {
+			String aExecutionEnvironment = null;
+			String aJunitLibraryPath = null;
+			Map<String, List<String>> allLibraryContainers = null;
+			Map<String, long[]> allRanges = new LinkedHashMap<>();
+
+			skipByteOrderMark();
+			expect('{');
+			while (!isNext('}')) {
+				String aKey = readString();
+
+				expect(':');
+				switch (aKey) {
+					case "executionEnvironment":
+						aExecutionEnvironment = readValue(String.class);
+						break;
+					case "junitLibraryPath":
+						aJunitLibraryPath = readValue(String.class);
+						break;
+					case "libraryContainers":
+						allLibraryContainers = readValue(LIBRARY_CONTAINERS_TYPE);
+						break;
+					case "projectConfigurations":
+						scanProjectConfigurations(allRanges);
+						break;
+					default:
+						skipValue();
+						break;
+				}
+				skipSeparator('}');
+			}
+			expect('}');
+
+			return new ProjectConfigurationFile(theFile, false, content.length, theFileLastModified, aExecutionEnvironment, aJunitLibraryPath, allLibraryContainers, allRanges);
+		}
+
+		ProjectConfigurationFile scanFragment(Path theFile, long theFileLastModified) throws IOException {
+			Map<String, long[]> allRanges = new LinkedHashMap<>();
+
+			skipByteOrderMark();
+			scanProjectConfigurations(allRanges);
+
+			return new ProjectConfigurationFile(theFile, true, content.length, theFileLastModified, null, null, null, allRanges);
+		}
+
+		private void scanProjectConfigurations(Map<String, long[]> theRanges) throws IOException {
+			if (!isNext('{')) {
+				// null
+				skipValue();
+				return;
+			}
+
+			expect('{');
+			while (!isNext('}')) {
+				String aKey = readString();
+
+				expect(':');
+				skipWhitespace();
+
+				int aStart = position;
+
+				skipValue();
+				theRanges.put(aKey, new long[] { aStart, position - aStart });
+				skipSeparator('}');
+			}
+			expect('}');
+		}
+
+		private <T> T readValue(Type theType) throws IOException {
+			skipWhitespace();
+
+			int aStart = position;
+
+			skipValue();
+			try {
+				return GSON.fromJson(new String(content, aStart, position - aStart, StandardCharsets.UTF_8), theType);
+			}
+			catch (JsonParseException theCause) {
+				throw new IOException("invalid value at offset " + aStart + ": " + theCause.getMessage(), theCause);
+			}
+		}
+
+		private String readString() throws IOException {
+			skipWhitespace();
+			if (position >= content.length || content[position] != '"') {
+				throw malformed("string");
+			}
+
+			int aStart = position;
+			boolean isEscaped = skipString();
+
+			if (isEscaped) {
+				return readValueAt(aStart);
+			}
+			return new String(content, aStart + 1, position - aStart - 2, StandardCharsets.UTF_8);
+		}
+
+		private String readValueAt(int theStart) throws IOException {
+			try {
+				return GSON.fromJson(new String(content, theStart, position - theStart, StandardCharsets.UTF_8), String.class);
+			}
+			catch (JsonParseException theCause) {
+				throw new IOException("invalid string at offset " + theStart + ": " + theCause.getMessage(), theCause);
+			}
+		}
+
+		private void skipValue() throws IOException {
+			skipWhitespace();
+			if (position >= content.length) {
+				throw malformed("value");
+			}
+
+			switch (content[position]) {
+				case '"':
+					skipString();
+					break;
+
+				case '{':
+				case '[':
+					skipStructure();
+					break;
+
+				default:
+					// number, true, false or null
+					int aStart = position;
+
+					while (position < content.length && !isDelimiter(content[position])) {
+						position++;
+					}
+					if (position == aStart) {
+						throw malformed("value");
+					}
+					break;
+			}
+		}
+
+		private void skipStructure() throws IOException {
+			int aDepth = 0;
+
+			do {
+				if (position >= content.length) {
+					throw malformed("end of object or array");
+				}
+
+				switch (content[position]) {
+					case '"':
+						skipString();
+						continue;
+					case '{':
+					case '[':
+						aDepth++;
+						break;
+					case '}':
+					case ']':
+						aDepth--;
+						break;
+					default:
+						break;
+				}
+				position++;
+			}
+			while (aDepth > 0);
+		}
+
+		/**
+		 * @return <code>true</code> if the string contains escape sequences
+		 */
+		private boolean skipString() throws IOException {
+			boolean isEscaped = false;
+
+			position++;
+			while (position < content.length && content[position] != '"') {
+				if (content[position] == '\\') {
+					isEscaped = true;
+					position++;
+				}
+				position++;
+			}
+			if (position >= content.length) {
+				throw malformed("end of string");
+			}
+			position++;
+			return isEscaped;
+		}
+
+		private void skipSeparator(char theEnd) throws IOException {
+			skipWhitespace();
+			if (position < content.length && content[position] == ',') {
+				position++;
+			}
+			else if (!isNext(theEnd)) {
+				throw malformed("',' or '" + theEnd + "'");
+			}
+		}
+
+		private void expect(char theChar) throws IOException {
+			skipWhitespace();
+			if (position >= content.length || content[position] != theChar) {
+				throw malformed("'" + theChar + "'");
+			}
+			position++;
+		}
+
+		/**
+		 * @return <code>true</code> if the next non whitespace character is the given one
+		 */
+		private boolean isNext(char theChar) {
+			skipWhitespace();
+			return position < content.length && content[position] == theChar;
+		}
+
+		private void skipWhitespace() {
+			while (position < content.length && (content[position] == ' ' || content[position] == '\t' || content[position] == '\n' || content[position] == '\r')) {
+				position++;
+			}
+		}
+
+		private void skipByteOrderMark() {
+			if (content.length >= 3 && (content[0] & 0xff) == 0xef && (content[1] & 0xff) == 0xbb && (content[2] & 0xff) == 0xbf) {
+				position = 3;
+			}
+		}
+
+		private static boolean isDelimiter(byte theByte) {
+			return theByte == ',' || theByte == '}' || theByte == ']' || theByte == ' ' || theByte == '\t' || theByte == '\n' || theByte == '\r';
+		}
+
+		private IOException malformed(String theExpected) {
+			return new IOException("malformed json, expected " + theExpected + " at offset " + position);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.profidata.eclipse.project.model.fix;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.profidata.eclipse.project.model.Activator;
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ProjectConfiguration;
+
+/**
+ * Directory of configuration fragments complementing the configuration file. A fragment <code>&lt;group&gt;.json</code>
+ * has the structure of the <code>projectConfigurations</code> of the configuration file and applies to the project
+ * <code>&lt;group&gt;</code> and all projects named <code>&lt;group&gt;.*</code> (e.g. <code>com.xentis.json</code>
+ * applies to <code>com.xentis.core</code> and <code>com.xentis.core.test</code>).
+ * <p>
+ * A fragment is loaded on the first lookup of a project of its group and dropped when its file is changed.
+ */
+final class ProjectConfigurationFragments {
+	private static final String FRAGMENT_EXTENSION = ".json";
+
+	private final Path directory;
+	// group -> lookup of the loaded fragment
+	private final Map<String, ProjectConfigurationLookup> loadedFragments = new ConcurrentHashMap<>();
+
+	ProjectConfigurationFragments(Path theDirectory) {
+		directory = theDirectory;
+	}
+
+	Path getDirectory() {
+		return directory;
+	}
+
+	static boolean isFragment(Path theFileName) {
+		return theFileName.toString().endsWith(FRAGMENT_EXTENSION);
+	}
+
+	static String getGroup(Path theFileName) {
+		String aFileName = theFileName.toString();
+
+		return aFileName.substring(0, aFileName.length() - FRAGMENT_EXTENSION.length());
+	}
+
+	static boolean isInGroup(String theProjectName, String theGroup) {
+		return theProjectName.equals(theGroup) || theProjectName.startsWith(theGroup + ".");
+	}
+
+	/**
+	 * @return the configurations of the given project defined by the fragments of its groups, ordered from the least
+	 *         to the most specific group
+	 */
+	List<ProjectConfiguration> find(String theProjectName) {
+		List<ProjectConfiguration> allConfigurations = new ArrayList<>();
+		int aGroupEnd = theProjectName.indexOf('.');
+
+		while (aGroupEnd >= 0) {
+			addConfiguration(theProjectName.substring(0, aGroupEnd), theProjectName, allConfigurations);
+			aGroupEnd = theProjectName.indexOf('.', aGroupEnd + 1);
+		}
+		addConfiguration(theProjectName, theProjectName, allConfigurations);
+
+		return allConfigurations;
+	}
+
+	/**
+	 * Drops the loaded fragment of the given group, all fragments if the group is <code>null</code>.
+	 */
+	void invalidate(String theGroup) {
+		if (theGroup == null) {
+			loadedFragments.clear();
+		}
+		else {
+			loadedFragments.remove(theGroup);
+		}
+	}
+
+	private void addConfiguration(String theGroup, String theProjectName, List<ProjectConfiguration> theConfigurations) {
+		ProjectConfiguration aConfiguration = loadedFragments.computeIfAbsent(theGroup, this::load).find(theProjectName);
+
+		if (aConfiguration != ProjectConfiguration.EMPTY) {
+			theConfigurations.add(aConfiguration);
+		}
+	}
+
+	private ProjectConfigurationLookup load(String theGroup) {
+		Path aFragmentFile = directory.resolve(theGroup + FRAGMENT_EXTENSION);
+
+		if (!Files.isRegularFile(aFragmentFile)) {
+			// missing fragments are remembered as well, a new fragment is reported by the watcher
+			return ProjectConfigurationLookup.EMPTY;
+		}
+
+		try {
+			ProjectConfigurationFile aFragment = ProjectConfigurationFile.loadFragment(aFragmentFile);
+
+			return new ProjectConfigurationLookup(aFragment.getProjectConfigurationKeys(), aFragment::decode);
+		}
+		catch (NoSuchFileException theCause) {
+			return ProjectConfigurationLookup.EMPTY;
+		}
+		catch (IOException theCause) {
+			Activator.error("could not read json file: " + aFragmentFile + ": " + theCause.getMessage());
+			return ProjectConfigurationLookup.EMPTY;
+		}
+	}
+}
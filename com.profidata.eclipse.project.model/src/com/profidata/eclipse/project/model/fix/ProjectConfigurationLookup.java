@@ -0,0 +1,202 @@
+package com.profidata.eclipse.project.model.fix;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ClasspathEntry;
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ProjectConfiguration;
+
+/**
+ * Resolves the configuration of a project from the entries of the additional project configuration. An entry is
+ * either defined for an exact project name or for a project name pattern containing <code>*</code> wildcards (e.g.
+ * <code>com.xentis.*</code>, <code>*.test</code> or <code>*</code>).
+ * <p>
+ * All entries matching a project are merged from the least to the most specific one (the exact name being the most
+ * specific): encoding and execution environment of a more specific entry override the inherited ones, all other
+ * settings are accumulated. Prefix and suffix patterns are compiled into tries, so a lookup only depends on the length
+ * of the project name. Entries are only decoded when a project matches them, entries and resolved configurations are
+ * memoized.
+ */
+final class ProjectConfigurationLookup {
+	static final ProjectConfigurationLookup EMPTY = new ProjectConfigurationLookup(Collections.emptySet(), theKey -> null);
+
+	private static final char WILDCARD = '*';
+	private static final Comparator<PatternEntry> BY_SPECIFICITY = Comparator.comparingInt((PatternEntry theEntry) -> theEntry.specificity)
+			.thenComparing(theEntry -> theEntry.key);
+
+	private final Function<String, ProjectConfiguration> decoder;
+	private final Set<String> exactKeys = new HashSet<>();
+	private final TrieNode prefixPatterns = new TrieNode();
+	private final TrieNode suffixPatterns = new TrieNode();
+	private final List<PatternEntry> otherPatterns = new ArrayList<>();
+	private final Map<String, ProjectConfiguration> decodedConfigurations = new ConcurrentHashMap<>();
+	private final Map<String, ProjectConfiguration> resolvedConfigurations = new ConcurrentHashMap<>();
+
+	/**
+	 * @param theKeys
+	 *            the project names and name patterns having a configuration
+	 * @param theDecoder
+	 *            provides the configuration of a key, <code>null</code> if it is not available
+	 */
+	ProjectConfigurationLookup(Collection<String> theKeys, Function<String, ProjectConfiguration> theDecoder) {
+		decoder = theDecoder;
+		theKeys.forEach(this::add);
+	}
+
+	/**
+	 * @return the resolved configuration of the given project, {@link ProjectConfiguration#EMPTY} if no entry matches
+	 */
+	ProjectConfiguration find(String theProjectName) {
+		return resolvedConfigurations.computeIfAbsent(theProjectName, this::resolve);
+	}
+
+	private void add(String theKey) {
+		int aFirstWildcard = theKey.indexOf(WILDCARD);
+		int aLastWildcard = theKey.lastIndexOf(WILDCARD);
+
+		if (aFirstWildcard < 0) {
+			exactKeys.add(theKey);
+		}
+		else if (aFirstWildcard == theKey.length() - 1) {
+			// com.xentis.* (or the default *)
+			prefixPatterns.insert(theKey.substring(0, aFirstWildcard), new PatternEntry(theKey));
+		}
+		else if (aLastWildcard == 0) {
+			// *.test
+			suffixPatterns.insert(new StringBuilder(theKey.substring(1)).reverse().toString(), new PatternEntry(theKey));
+		}
+		else {
+			otherPatterns.add(new PatternEntry(theKey));
+		}
+	}
+
+	private ProjectConfiguration resolve(String theProjectName) {
+		List<PatternEntry> allMatchingEntries = new ArrayList<>();
+
+		prefixPatterns.collect(theProjectName, allMatchingEntries);
+		suffixPatterns.collect(new StringBuilder(theProjectName).reverse(), allMatchingEntries);
+		otherPatterns.stream().filter(theEntry -> theEntry.matches(theProjectName)).forEach(allMatchingEntries::add);
+		allMatchingEntries.sort(BY_SPECIFICITY);
+
+		List<ProjectConfiguration> allConfigurations = new ArrayList<>();
+
+		allMatchingEntries.forEach(theEntry -> addConfiguration(theEntry.key, allConfigurations));
+		if (exactKeys.contains(theProjectName)) {
+			addConfiguration(theProjectName, allConfigurations);
+		}
+
+		return allConfigurations.isEmpty() ? ProjectConfiguration.EMPTY : merge(allConfigurations);
+	}
+
+	private void addConfiguration(String theKey, List<ProjectConfiguration> theConfigurations) {
+		ProjectConfiguration aConfiguration = decodedConfigurations.computeIfAbsent(theKey, decoder);
+
+		if (aConfiguration != null) {
+			theConfigurations.add(aConfiguration);
+		}
+	}
+
+	/**
+	 * @param theConfigurations
+	 *            the configurations ordered from the least to the most specific one, properties missing in the json
+	 *            file are <code>null</code>
+	 */
+	static ProjectConfiguration merge(List<ProjectConfiguration> theConfigurations) {
+		String aEncoding = null;
+		String aExecutionEnvironment = null;
+		Set<String> allPackageDependencies = new LinkedHashSet<>();
+		Set<ClasspathEntry> allClasspathEntries = new LinkedHashSet<>();
+		Set<String> allBundles = new LinkedHashSet<>();
+
+		for (ProjectConfiguration aConfiguration : theConfigurations) {
+			if (aConfiguration.encoding != null) {
+				aEncoding = aConfiguration.encoding;
+			}
+			if (aConfiguration.executionEnvironment != null) {
+				aExecutionEnvironment = aConfiguration.executionEnvironment;
+			}
+			if (aConfiguration.additionalPackageDependencies != null) {
+				allPackageDependencies.addAll(aConfiguration.additionalPackageDependencies);
+			}
+			if (aConfiguration.additionalClasspathEntries != null) {
+				allClasspathEntries.addAll(aConfiguration.additionalClasspathEntries);
+			}
+			if (aConfiguration.additionalBundles != null) {
+				allBundles.addAll(aConfiguration.additionalBundles);
+			}
+		}
+
+		return new ProjectConfiguration(
+				aEncoding,
+				aExecutionEnvironment,
+				Collections.unmodifiableSet(allPackageDependencies),
+				Collections.unmodifiableSet(allClasspathEntries),
+				Collections.unmodifiableList(new ArrayList<>(allBundles)));
+	}
+
+	private static class PatternEntry {
+		private final String key;
+		// the more literal characters a pattern has, the more specific it is
+		private final int specificity;
+		private final Pattern regularExpression;
+
+		PatternEntry(String theKey) {
+			key = theKey;
+			specificity = theKey.length() - (int) theKey.chars().filter(theChar -> theChar == WILDCARD).count();
+			regularExpression = toRegularExpression(theKey);
+		}
+
+		boolean matches(String theProjectName) {
+			return regularExpression.matcher(theProjectName).matches();
+		}
+
+		private static Pattern toRegularExpression(String thePattern) {
+			StringBuilder aRegularExpression = new StringBuilder();
+
+			for (String aLiteral : thePattern.split("\\*", -1)) {
+				if (aRegularExpression.length() > 0) {
+					aRegularExpression.append(".*");
+				}
+				aRegularExpression.append(Pattern.quote(aLiteral));
+			}
+			return Pattern.compile(aRegularExpression.toString());
+		}
+	}
+
+	private static class TrieNode {
+		private final Map<Character, TrieNode> children = new HashMap<>();
+		private final List<PatternEntry> entries = new ArrayList<>(1);
+
+		void insert(CharSequence theLiteral, PatternEntry theEntry) {
+			TrieNode aNode = this;
+
+			for (int i = 0; i < theLiteral.length(); i++) {
+				aNode = aNode.children.computeIfAbsent(theLiteral.charAt(i), theChar -> new TrieNode());
+			}
+			aNode.entries.add(theEntry);
+		}
+
+		/**
+		 * Collects the entries of all literals being a prefix of the given name.
+		 */
+		void collect(CharSequence theName, List<PatternEntry> theEntries) {
+			TrieNode aNode = this;
+
+			for (int i = 0; aNode != null; i++) {
+				theEntries.addAll(aNode.entries);
+				aNode = i < theName.length() ? aNode.children.get(theName.charAt(i)) : null;
+			}
+		}
+	}
+}
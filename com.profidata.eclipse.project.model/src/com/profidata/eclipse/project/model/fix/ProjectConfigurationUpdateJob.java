@@ -0,0 +1,95 @@
+package com.profidata.eclipse.project.model.fix;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
+
+import com.profidata.eclipse.project.model.Activator;
+import com.profidata.eclipse.project.model.ProjectConstants;
+import com.profidata.eclipse.project.model.ProjectWrapper;
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ProjectConfiguration;
+
+/**
+ * Applies a changed additional project configuration to the projects whose resolved configuration has been changed,
+ * without waiting for the next Gradle synchronization. The entries of the previously applied configuration which are
+ * no longer configured are removed from the projects.
+ */
+class ProjectConfigurationUpdateJob extends WorkspaceJob {
+	private final Map<IProject, ProjectConfiguration> appliedConfigurations;
+
+	/**
+	 * @param theAppliedConfigurations
+	 *            the changed projects with the configuration previously applied to them
+	 */
+	ProjectConfigurationUpdateJob(Map<IProject, ProjectConfiguration> theAppliedConfigurations) {
+		super("Apply additional project configuration");
+
+		appliedConfigurations = theAppliedConfigurations;
+
+		IResourceRuleFactory aRuleFactory = ResourcesPlugin.getWorkspace().getRuleFactory();
+
+		setRule(MultiRule.combine(theAppliedConfigurations.keySet().stream().map(aRuleFactory::modifyRule).toArray(ISchedulingRule[]::new)));
+		setSystem(true);
+	}
+
+	@Override
+	public IStatus runInWorkspace(IProgressMonitor theMonitor) {
+		SubMonitor aMonitor = SubMonitor.convert(theMonitor, appliedConfigurations.size());
+
+		for (Map.Entry<IProject, ProjectConfiguration> aAppliedConfiguration : appliedConfigurations.entrySet()) {
+			if (aMonitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			if (aAppliedConfiguration.getKey().isAccessible()) {
+				apply(aAppliedConfiguration.getKey(), aAppliedConfiguration.getValue());
+			}
+			aMonitor.worked(1);
+		}
+		return Status.OK_STATUS;
+	}
+
+	private void apply(IProject theProject, ProjectConfiguration theAppliedConfiguration) {
+		AdditionalProjectConfigurationDefinitionProvider aConfigurationProvider = AdditionalProjectConfigurationDefinitionProvider.getInstance();
+		ProjectWrapper aProjectWrapper = ProjectWrapper.of(theProject).asJavaProject();
+		boolean isPluginProject = aProjectWrapper.hasNature(ProjectConstants.PLUGIN_NATURE_ID);
+		String aHostId = isPluginProject && aProjectWrapper.isFragment() ? aProjectWrapper.getFragmentHostId() : null;
+		IProject aHostProject = aHostId != null ? theProject.getWorkspace().getRoot().getProject(aHostId) : null;
+		boolean isTestFragment = aHostProject != null && theProject.getName().equals(TestFragmentCreator.getTestProjectName(aHostProject));
+
+		Activator.info(" -> Apply changed additional configuration to project: " + theProject.getName());
+		FixProjectDefinition.update(aProjectWrapper, !isPluginProject || isTestFragment, theAppliedConfiguration);
+
+		if (isTestFragment) {
+			ProjectConfiguration aAdditionalConfig = aConfigurationProvider.find(theProject.getName());
+			Set<String> someRemovedPackageDependencies = new HashSet<>(theAppliedConfiguration.additionalPackageDependencies);
+
+			someRemovedPackageDependencies.removeAll(aAdditionalConfig.additionalPackageDependencies);
+			aProjectWrapper
+					.removePackageDependenciesFromTestFragmentManifest(aHostProject, () -> aAdditionalConfig.additionalPackageDependencies, () -> someRemovedPackageDependencies)
+					.updateTestFragmentManifest(aHostProject, () -> aAdditionalConfig.additionalPackageDependencies, () -> Collections.emptySet(), Collections.emptyMap())
+					.updateBuildProperties(aAdditionalConfig.additionalBundles);
+
+			// the configured bundles replace the previous entry, it only has to be removed if no bundle is configured anymore
+			if (aAdditionalConfig.additionalBundles.isEmpty() && !theAppliedConfiguration.additionalBundles.isEmpty()) {
+				aProjectWrapper.removeAdditionalBundlesFromBuildProperties();
+			}
+			aProjectWrapper.setExecutionEnvironment(aConfigurationProvider.findExecutionEnvironment(theProject.getName()));
+		}
+
+		if (aProjectWrapper.hasError()) {
+			Activator.error("Apply additional configuration to project '" + theProject.getName() + "' failed:\n-> " + aProjectWrapper.getErrorMessage());
+		}
+	}
+}
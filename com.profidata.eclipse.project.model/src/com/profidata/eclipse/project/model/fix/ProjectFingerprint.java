@@ -0,0 +1,259 @@
+package com.profidata.eclipse.project.model.fix;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.jdt.core.JavaCore;
+
+import com.profidata.eclipse.project.model.Activator;
+import com.profidata.eclipse.project.model.ProjectConstants;
+import com.profidata.eclipse.project.model.ProjectWrapper;
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.AccessRule;
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ClasspathEntry;
+import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ProjectConfiguration;
+
+/**
+ * Fingerprint of all inputs of the fixes applied to a project (and its test fragment) after a Gradle synchronization.
+ * The fingerprint is stored as persistent property of the project after the fixes have been applied, so an unchanged
+ * project can be skipped on the next synchronization.
+ * <p>
+ * One instance is used for all checks of a project during a synchronization. The packages of the test fragment are
+ * determined only once by it, since the fixes do not change any source file. The fingerprint is only stored if the
+ * project and its test fragment have been fixed without errors.
+ */
+public final class ProjectFingerprint {
+	public static final String SYSTEM_PROPERTY = "extension.buildship.fingerprint";
+
+	// increment whenever the fixes change, so all projects are fixed again once
+	private static final int VERSION = 1;
+	private static final QualifiedName FINGERPRINT_PROPERTY = new QualifiedName("com.profidata.eclipse.project.model", "synchronizationFingerprint");
+	private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(SYSTEM_PROPERTY, "true"));
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final IProject project;
+	private final List<String> sourceDirectories;
+	private final boolean isAbsoluteSourcePath;
+	// imported packages of the test fragment and source packages of the project, null until the fragment exists
+	private String packages;
+	// fingerprint of the current state, null if it has to be computed again
+	private String currentFingerprint;
+
+	/**
+	 * @param theProject
+	 *            the synchronized project
+	 * @param theSourceDirectories
+	 *            the paths of the source directories defined by the Gradle project
+	 * @param theAbsoluteSourcePath
+	 *            <code>true</code> if the source folders of the test fragment are linked with absolute paths
+	 */
+	public ProjectFingerprint(IProject theProject, List<String> theSourceDirectories, boolean theAbsoluteSourcePath) {
+		project = theProject;
+		sourceDirectories = theSourceDirectories;
+		isAbsoluteSourcePath = theAbsoluteSourcePath;
+	}
+
+	/**
+	 * @return <code>true</code> if the fingerprint stored after the last fix matches the current state of the project
+	 */
+	public boolean isUnchanged() {
+		if (!ENABLED) {
+			return false;
+		}
+
+		try {
+			String aStoredFingerprint = project.getPersistentProperty(FINGERPRINT_PROPERTY);
+
+			if (currentFingerprint == null) {
+				currentFingerprint = compute();
+			}
+			return aStoredFingerprint != null && aStoredFingerprint.equals(currentFingerprint);
+		}
+		catch (CoreException | IOException theCause) {
+			return false;
+		}
+	}
+
+	/**
+	 * Computes the fingerprint again on the next check, to be called after the project has been changed, e.g. by
+	 * Buildship.
+	 */
+	public void invalidate() {
+		currentFingerprint = null;
+	}
+
+	/**
+	 * Stores the fingerprint of the current state of the project, to be called after all fixes have been applied
+	 * successfully.
+	 */
+	public void store() {
+		if (!ENABLED) {
+			return;
+		}
+
+		try {
+			// the fixes have changed the project files
+			currentFingerprint = compute();
+			project.setPersistentProperty(FINGERPRINT_PROPERTY, currentFingerprint);
+		}
+		catch (CoreException | IOException theCause) {
+			Activator.error("Could not store fingerprint of project '" + project.getName() + "': " + theCause.getMessage());
+		}
+	}
+
+	/**
+	 * Forgets the stored fingerprint, so the project is fixed completely on the next synchronization.
+	 */
+	public static void reset(IProject theProject) {
+		try {
+			if (theProject.isAccessible()) {
+				theProject.setPersistentProperty(FINGERPRINT_PROPERTY, null);
+			}
+		}
+		catch (CoreException theCause) {
+			Activator.error("Could not reset fingerprint of project '" + theProject.getName() + "': " + theCause.getMessage());
+		}
+	}
+
+	private String compute() throws CoreException, IOException {
+		MessageDigest aDigest = newDigest();
+		AdditionalProjectConfigurationDefinitionProvider aConfigurationProvider = AdditionalProjectConfigurationDefinitionProvider.getInstance();
+		IProject aTestProject = project.getWorkspace().getRoot().getProject(TestFragmentCreator.getTestProjectName(project));
+
+		update(aDigest, "version", String.valueOf(VERSION));
+		update(aDigest, "absoluteSourcePath", String.valueOf(isAbsoluteSourcePath));
+		update(aDigest, "sourceDirectories", String.join(",", sourceDirectories));
+		update(aDigest, "junitLibraryPath", aConfigurationProvider.findJUnitLibraryPath(project.getName()));
+
+		addProject(aDigest, project);
+		if (aTestProject.isAccessible()) {
+			addProject(aDigest, aTestProject);
+
+			// the manifest of the test fragment is derived from its imports and the packages of its host
+			if (packages == null) {
+				packages = computePackages(aTestProject);
+			}
+			update(aDigest, "packages", packages);
+		}
+		else {
+			update(aDigest, "testProject", "-");
+		}
+
+		return toHex(aDigest.digest());
+	}
+
+	private String computePackages(IProject theTestProject) throws IOException {
+		ProjectWrapper aTestProjectWrapper = ProjectWrapper.of(theTestProject).asJavaProject();
+		ProjectWrapper aProjectWrapper = ProjectWrapper.of(project).asJavaProject();
+		String aImportedPackages = String.join(",", new TreeSet<>(aTestProjectWrapper.getImportedPackages()));
+		String aSourcePackages = String.join(",", new TreeSet<>(aProjectWrapper.getSourcePackages()));
+
+		if (aTestProjectWrapper.hasError() || aProjectWrapper.hasError()) {
+			throw new IOException(Objects.toString(aTestProjectWrapper.getErrorMessage(), aProjectWrapper.getErrorMessage()));
+		}
+		return "imported:" + aImportedPackages + ";source:" + aSourcePackages;
+	}
+
+	private static void addProject(MessageDigest theDigest, IProject theProject) throws CoreException, IOException {
+		AdditionalProjectConfigurationDefinitionProvider aConfigurationProvider = AdditionalProjectConfigurationDefinitionProvider.getInstance();
+
+		update(theDigest, "project", theProject.getName());
+		update(theDigest, "natures", String.valueOf(theProject.hasNature(JavaCore.NATURE_ID)) + theProject.hasNature(ProjectConstants.PLUGIN_NATURE_ID));
+		update(theDigest, "charset", theProject.getDefaultCharset(false));
+		update(theDigest, "configuration", toCanonicalString(aConfigurationProvider.find(theProject.getName())));
+		update(theDigest, "executionEnvironment", aConfigurationProvider.findExecutionEnvironment(theProject.getName()));
+
+		addFile(theDigest, theProject.getFile(".project"));
+		addFile(theDigest, theProject.getFile(".classpath"));
+		addFile(theDigest, theProject.getFile("META-INF/MANIFEST.MF"));
+		addFile(theDigest, theProject.getFile("build.properties"));
+	}
+
+	private static void addFile(MessageDigest theDigest, IFile theFile) throws IOException {
+		update(theDigest, "file", theFile.getProjectRelativePath().toPortableString());
+
+		if (theFile.getLocation() == null) {
+			update(theDigest, "content", "-");
+			return;
+		}
+
+		try {
+			byte[] aContent = Files.readAllBytes(theFile.getLocation().toFile().toPath());
+
+			update(theDigest, "length", String.valueOf(aContent.length));
+			theDigest.update(aContent);
+		}
+		catch (NoSuchFileException theCause) {
+			update(theDigest, "content", "-");
+		}
+	}
+
+	/**
+	 * @return a representation of the configuration which does not depend on the order of its unordered elements
+	 */
+	static String toCanonicalString(ProjectConfiguration theConfiguration) {
+		StringBuilder aBuilder = new StringBuilder();
+
+		aBuilder.append("encoding=").append(theConfiguration.encoding);
+		aBuilder.append(";executionEnvironment=").append(theConfiguration.executionEnvironment);
+		aBuilder.append(";packages=").append(sorted(theConfiguration.additionalPackageDependencies));
+		aBuilder.append(";classpath=");
+		if (theConfiguration.additionalClasspathEntries != null) {
+			aBuilder.append(sorted(theConfiguration.additionalClasspathEntries.stream().map(ProjectFingerprint::toCanonicalString).collect(Collectors.toList())));
+		}
+		aBuilder.append(";bundles=").append(theConfiguration.additionalBundles);
+
+		return aBuilder.toString();
+	}
+
+	private static String toCanonicalString(ClasspathEntry theClasspathEntry) {
+		String aAccessRules = theClasspathEntry.accessRules == null ? ""
+				: sorted(theClasspathEntry.accessRules.stream().map(ProjectFingerprint::toCanonicalString).collect(Collectors.toList()));
+
+		return theClasspathEntry.type + ":" + theClasspathEntry.path + ":" + theClasspathEntry.exported + ":" + aAccessRules;
+	}
+
+	private static String toCanonicalString(AccessRule theAccessRule) {
+		return theAccessRule.kind + ":" + theAccessRule.pattern;
+	}
+
+	private static String sorted(Collection<String> theValues) {
+		return theValues == null ? "" : new TreeSet<>(theValues).toString();
+	}
+
+	private static void update(MessageDigest theDigest, String theKey, String theValue) {
+		// the separators prevent different inputs from resulting in the same byte sequence
+		theDigest.update((theKey + "=" + theValue + "\u0000").getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException theCause) {
+			throw new IllegalStateException(theCause);
+		}
+	}
+
+	private static String toHex(byte[] theBytes) {
+		char[] aHex = new char[theBytes.length * 2];
+
+		for (int i = 0; i < theBytes.length; i++) {
+			aHex[i * 2] = HEX_DIGITS[(theBytes[i] >> 4) & 0x0f];
+			aHex[i * 2 + 1] = HEX_DIGITS[theBytes[i] & 0x0f];
+		}
+		return new String(aHex);
+	}
+}
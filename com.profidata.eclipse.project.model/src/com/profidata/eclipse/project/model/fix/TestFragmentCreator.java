@@ -18,6 +18,11 @@ import com.profidata.eclipse.project.model.Activator;
 import com.profidata.eclipse.project.model.ProjectConstants;
 import com.profidata.eclipse.project.model.ProjectWrapper;
 import com.profidata.eclipse.project.model.fix.AdditionalProjectConfigurations.ProjectConfiguration;
+import com.profidata.eclipse.project.model.monitor.MutationRecording;
+import com.profidata.eclipse.project.model.monitor.MutationRecording.Operation;
+import com.profidata.eclipse.project.model.monitor.SynchronizationPhase;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics.Span;
 
 public class TestFragmentCreator {
 
@@ -25,8 +30,20 @@ public class TestFragmentCreator {
 	private final List<String> testTypes;
 	private final boolean isAbsolutSourcePath;
 
-	public static void run(IProject theProject, List<String> theTestTypes, boolean theAbsolutSourcePath, List<IClasspathEntry> theTestClassPathEntries) {
-		new TestFragmentCreator(theProject, theTestTypes, theAbsolutSourcePath).create(theTestClassPathEntries);
+	/**
+	 * Creates or updates the OSGi test fragment of the given project, the errors are logged.
+	 *
+	 * @return <code>true</code> if no test fragment is needed or it has been created or updated without errors
+	 */
+	public static boolean run(IProject theProject, List<String> theTestTypes, boolean theAbsolutSourcePath, List<IClasspathEntry> theTestClassPathEntries) {
+		return new TestFragmentCreator(theProject, theTestTypes, theAbsolutSourcePath).create(theTestClassPathEntries);
+	}
+
+	/**
+	 * @return the name of the OSGi test fragment project of the given host project
+	 */
+	public static String getTestProjectName(IProject theProject) {
+		return theProject.getName() + ".test";
 	}
 
 	private TestFragmentCreator(IProject theProject, List<String> theTestTypes, boolean theAbsolutSourcePath) {
@@ -35,15 +52,15 @@ public class TestFragmentCreator {
 		isAbsolutSourcePath = theAbsolutSourcePath;
 	}
 
-	private void create(List<IClasspathEntry> theTestClassPathEntries) {
+	private boolean create(List<IClasspathEntry> theTestClassPathEntries) {
 		IJavaProject aJavaProject = JavaCore.create(project);
 
 		if (theTestClassPathEntries.isEmpty()) {
-			return;
+			return true;
 		}
 
 		IWorkspace aWorkspace = project.getWorkspace();
-		String aTestProjectName = project.getName() + ".test";
+		String aTestProjectName = getTestProjectName(project);
 		ProjectWrapper aTestProjectWrapper = ProjectWrapper.of(aWorkspace, aTestProjectName);
 
 		List<IClasspathEntry> allTestSourceClasspathEntries = theTestClassPathEntries.stream()
@@ -57,33 +74,44 @@ public class TestFragmentCreator {
 		if (!aTestProjectWrapper.isExisting()) {
 			ProjectWrapper aProjectWrapper = ProjectWrapper.of(project);
 
-			aProjectWrapper.asJavaProject();
+			aProjectWrapper.asJavaProject().beginClasspathChanges();
 			allTestSourceClasspathEntries.forEach(theTestClaspathEntry -> aProjectWrapper.removeClasspathEntry(theTestClaspathEntry.getPath()));
+			aProjectWrapper.commitClasspathChanges();
+
+			boolean isCreated = createTestProject(project, allTestSourceClasspathEntries);
 
-			createTestProject(project, allTestSourceClasspathEntries);
+			if (aProjectWrapper.hasError()) {
+				Activator.error("Remove test source folders of project '" + project.getName() + "' failed:\n-> " + aProjectWrapper.getErrorMessage());
+				return false;
+			}
+			return isCreated;
 		}
 
 		else {
-			updateTestProject(project, allTestSourceClasspathEntries);
+			return updateTestProject(project, allTestSourceClasspathEntries);
 		}
 	}
 
-	private void createTestProject(IProject theProject, List<IClasspathEntry> theTestSourceClasspathEntries) {
+	private boolean createTestProject(IProject theProject, List<IClasspathEntry> theTestSourceClasspathEntries) {
 		IWorkspace aWorkspace = theProject.getWorkspace();
-		String aTestProjectName = theProject.getName() + ".test";
+		String aTestProjectName = getTestProjectName(theProject);
 		ProjectWrapper aProjectWrapper = ProjectWrapper.of(aWorkspace, aTestProjectName);
+		boolean isHostFixed = true;
 
 		if (!aProjectWrapper.isExisting()) {
 			Activator.info(" -> Create OSGi Test fragment project: " + aTestProjectName);
 			ProjectConfiguration aAdditionalConfig = AdditionalProjectConfigurationDefinitionProvider.getInstance().find(aTestProjectName);
-			ProjectWrapper.of(theProject).setSingletonPlugin(true);
-			if (aProjectWrapper.hasProtocol()) {
-				Activator.info(aProjectWrapper.getProtocolMessage());
+			ProjectWrapper aHostProjectWrapper = ProjectWrapper.of(theProject).setSingletonPlugin(true);
+
+			if (aHostProjectWrapper.hasError()) {
+				Activator.error("Make project '" + theProject.getName() + "' a singleton failed:\n-> " + aHostProjectWrapper.getErrorMessage());
+				isHostFixed = false;
 			}
 
 			String aExecutionEnvironment = AdditionalProjectConfigurationDefinitionProvider.getInstance().findExecutionEnvironment(aTestProjectName);
 			IPath aWorkspaceLocation = theProject.getWorkspace().getRoot().getLocation();
-			aProjectWrapper.createProject().open().toJavaProject().removeDefaultSourceFolder().setOutputFolder("bin").addNature(ProjectConstants.PLUGIN_NATURE_ID)
+			aProjectWrapper.createProject().open().toJavaProject().beginClasspathChanges().removeDefaultSourceFolder().setOutputFolder("bin")
+					.addNature(ProjectConstants.PLUGIN_NATURE_ID)
 					.addBuilder("org.eclipse.pde.ManifestBuilder").addBuilder("org.eclipse.pde.SchemaBuilder")
 					.addClasspathEntry(
 							theTestProject -> JavaCore.newContainerEntry(
@@ -100,6 +128,8 @@ public class TestFragmentCreator {
 
 				aProjectWrapper.addLinkedSourceFolder(aTestType + "-" + aSourceType, aSourceLocation);
 			}
+			// the manifest is derived from the source folders, so the classpath has to be written first
+			aProjectWrapper.commitClasspathChanges();
 
 			aProjectWrapper
 					.createTestFragmentManifest(
@@ -118,7 +148,10 @@ public class TestFragmentCreator {
 				String aHostCharset = theProject.getDefaultCharset();
 
 				if (!aHostCharset.equals(aTestCharset)) {
-					aProjectWrapper.getProject().setDefaultCharset(aHostCharset, null);
+					try (MutationRecording aRecording = MutationRecording.start(Operation.SET_DEFAULT_CHARSET, aProjectWrapper.getProject()).detail(aHostCharset)) {
+						aProjectWrapper.getProject().setDefaultCharset(aHostCharset, null);
+						aRecording.succeeded();
+					}
 				}
 			}
 			catch (CoreException theCause) {
@@ -127,41 +160,51 @@ public class TestFragmentCreator {
 
 			if (aProjectWrapper.hasError()) {
 				Activator.error("Create test project '" + aTestProjectName + "' failed:\n-> " + aProjectWrapper.getErrorMessage());
-			}
-			else if (aProjectWrapper.hasProtocol()) {
-				Activator.info(aProjectWrapper.getProtocolMessage());
+				return false;
 			}
 		}
 
 		FixProjectDefinition.run(aProjectWrapper, true);
+		return isFixed(aProjectWrapper) && isHostFixed;
 	}
 
-	private void updateTestProject(IProject theProject, List<IClasspathEntry> theTestSourceClasspathEntries) {
+	private boolean updateTestProject(IProject theProject, List<IClasspathEntry> theTestSourceClasspathEntries) {
 		IWorkspace aWorkspace = theProject.getWorkspace();
-		String aTestProjectName = theProject.getName() + ".test";
+		String aTestProjectName = getTestProjectName(theProject);
 		ProjectWrapper aProjectWrapper = ProjectWrapper.of(aWorkspace, aTestProjectName).toJavaProject();
 
 		if (aProjectWrapper.isExisting()) {
-			Activator.info(" -> Update OSGi Test fragment project: " + aTestProjectName);
+			try (Span aSpan = SynchronizationStatistics.start(SynchronizationPhase.TEST_FRAGMENT_UPDATE, aTestProjectName)) {
+				Activator.info(" -> Update OSGi Test fragment project: " + aTestProjectName);
+
+				IPath aWorkspaceLocation = theProject.getWorkspace().getRoot().getLocation();
+				IPath aProjectLocation = theProject.getLocation();
+				for (IClasspathEntry aTestSourceClasspathEntry : theTestSourceClasspathEntries) {
+					IPath aSourcePath = aTestSourceClasspathEntry.getPath();
+					String aSourceType = aSourcePath.lastSegment();
+					String aTestType = aSourcePath.removeLastSegments(1).lastSegment();
+					IPath aSourceLocation = getSourceLocation(aWorkspaceLocation, aProjectLocation, aSourcePath);
+
+					aProjectWrapper.addLinkedSourceFolder(aTestType + "-" + aSourceType, aSourceLocation);
+				}
 
-			IPath aWorkspaceLocation = theProject.getWorkspace().getRoot().getLocation();
-			IPath aProjectLocation = theProject.getLocation();
-			for (IClasspathEntry aTestSourceClasspathEntry : theTestSourceClasspathEntries) {
-				IPath aSourcePath = aTestSourceClasspathEntry.getPath();
-				String aSourceType = aSourcePath.lastSegment();
-				String aTestType = aSourcePath.removeLastSegments(1).lastSegment();
-				IPath aSourceLocation = getSourceLocation(aWorkspaceLocation, aProjectLocation, aSourcePath);
+				ProjectConfiguration aAdditionalConfig = AdditionalProjectConfigurationDefinitionProvider.getInstance().find(aTestProjectName);
+				aProjectWrapper.toJavaProject()
+						.updateTestFragmentManifest(theProject, () -> aAdditionalConfig.additionalPackageDependencies, () -> Collections.emptySet(), Collections.emptyMap())
+						.updateBuildProperties(aAdditionalConfig.additionalBundles).refresh();
 
-				aProjectWrapper.addLinkedSourceFolder(aTestType + "-" + aSourceType, aSourceLocation);
+				FixProjectDefinition.run(aProjectWrapper, true);
 			}
+		}
+		return isFixed(aProjectWrapper);
+	}
 
-			ProjectConfiguration aAdditionalConfig = AdditionalProjectConfigurationDefinitionProvider.getInstance().find(aTestProjectName);
-			aProjectWrapper.toJavaProject()
-					.updateTestFragmentManifest(theProject, () -> aAdditionalConfig.additionalPackageDependencies, () -> Collections.emptySet(), Collections.emptyMap())
-					.updateBuildProperties(aAdditionalConfig.additionalBundles).refresh();
-
-			FixProjectDefinition.run(aProjectWrapper, true);
+	private static boolean isFixed(ProjectWrapper theProjectWrapper) {
+		if (theProjectWrapper.hasError()) {
+			Activator.error("Fix test project '" + theProjectWrapper.getProject().getName() + "' failed:\n-> " + theProjectWrapper.getErrorMessage());
+			return false;
 		}
+		return true;
 	}
 
 	private IPath getSourceLocation(IPath theWorkspaceLocation, IPath theProjectLocation, IPath theSourcePath) {
@@ -0,0 +1,179 @@
+package com.profidata.eclipse.project.model.monitor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+/**
+ * Writes the statuses of a bundle to its platform log by a daemon thread, so logging does not block the
+ * synchronization.
+ * <ul>
+ * <li>An info or warning status repeated while a synchronization is running is written once, the number of
+ * repetitions is written with the highest severity of the repeated statuses after the synchronization. Errors are
+ * never coalesced.</li>
+ * <li>At most <code>extension.buildship.log.rate</code> (default 50) info and warning statuses are written per
+ * second, the number of the dropped ones is written as soon as the rate allows it again. Errors are never dropped.</li>
+ * </ul>
+ */
+public final class AsynchronousLog {
+	private static final int RATE_LIMIT = Integer.getInteger("extension.buildship.log.rate", 50);
+	private static final long IDLE_TIMEOUT = 1000;
+
+	// the synchronizations are shared by the logs of all bundles, their span ends after the last project has been fixed
+	private static final AtomicInteger runningSynchronizations = new AtomicInteger();
+
+	private static class Repetition {
+		private int severity;
+		private int count;
+
+		Repetition(int theSeverity) {
+			severity = theSeverity;
+		}
+	}
+
+	private final ILog log;
+	private final String pluginId;
+	private final BlockingQueue<IStatus> statuses = new LinkedBlockingQueue<>();
+	private final Thread writerThread;
+	// queued by close, the writer thread writes the statuses queued before and terminates
+	private final IStatus closeMarker;
+
+	// only accessed by the writer thread
+	private final Map<String, Repetition> repetitions = new LinkedHashMap<>();
+	private int droppedStatusCount;
+	private long rateWindowStart;
+	private int rateWindowCount;
+
+	public AsynchronousLog(ILog theLog, String thePluginId) {
+		log = theLog;
+		pluginId = thePluginId;
+		closeMarker = new Status(IStatus.OK, thePluginId, "close", null);
+		writerThread = new Thread(this::writeStatuses, "Asynchronous Log Writer " + thePluginId);
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	static void synchronizationStarted() {
+		runningSynchronizations.incrementAndGet();
+	}
+
+	static void synchronizationFinished() {
+		runningSynchronizations.decrementAndGet();
+	}
+
+	public void log(IStatus theStatus) {
+		statuses.add(theStatus);
+	}
+
+	/**
+	 * Stops the writer thread after it has written the queued statuses. The statuses logged after the writer thread has
+	 * terminated are written on the calling thread. The owner must not pass any further statuses to this log once it is
+	 * closed.
+	 */
+	public void close() {
+		statuses.add(closeMarker);
+		try {
+			writerThread.join(IDLE_TIMEOUT);
+		}
+		catch (InterruptedException theCause) {
+			Thread.currentThread().interrupt();
+		}
+
+		// a still running writer thread writes the remaining statuses itself
+		if (!writerThread.isAlive()) {
+			writeRemainingStatuses();
+		}
+	}
+
+	private void writeStatuses() {
+		try {
+			while (true) {
+				IStatus aStatus = statuses.poll(IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+
+				if (aStatus == closeMarker) {
+					break;
+				}
+				if (aStatus != null) {
+					write(aStatus);
+				}
+				else if (runningSynchronizations.get() == 0) {
+					writeSuppressedStatuses();
+				}
+			}
+		}
+		catch (InterruptedException theCause) {
+			// terminated by the platform
+		}
+		writeRemainingStatuses();
+		writeSuppressedStatuses();
+	}
+
+	/**
+	 * Writes the queued statuses without coalescing and rate limit.
+	 */
+	private void writeRemainingStatuses() {
+		List<IStatus> allStatuses = new ArrayList<>();
+
+		statuses.drainTo(allStatuses);
+		allStatuses.stream().filter(theStatus -> theStatus != closeMarker).forEach(log::log);
+	}
+
+	private void write(IStatus theStatus) {
+		if (runningSynchronizations.get() > 0 && theStatus.getSeverity() != IStatus.ERROR) {
+			Repetition aRepetition = repetitions.get(theStatus.getMessage());
+
+			if (aRepetition != null) {
+				aRepetition.severity = Math.max(aRepetition.severity, theStatus.getSeverity());
+				aRepetition.count++;
+				return;
+			}
+			repetitions.put(theStatus.getMessage(), new Repetition(theStatus.getSeverity()));
+		}
+
+		if (theStatus.getSeverity() == IStatus.ERROR || isWithinRateLimit()) {
+			log.log(theStatus);
+		}
+		else {
+			droppedStatusCount++;
+		}
+	}
+
+	private boolean isWithinRateLimit() {
+		long aNow = System.nanoTime();
+
+		if (aNow - rateWindowStart >= TimeUnit.SECONDS.toNanos(1)) {
+			rateWindowStart = aNow;
+			rateWindowCount = 0;
+
+			if (droppedStatusCount > 0) {
+				log.log(new Status(IStatus.WARNING, pluginId, droppedStatusCount + " log messages dropped, more than " + RATE_LIMIT + " per second", null));
+				droppedStatusCount = 0;
+				rateWindowCount++;
+			}
+		}
+		return rateWindowCount++ < RATE_LIMIT;
+	}
+
+	private void writeSuppressedStatuses() {
+		repetitions.forEach((theMessage, theRepetition) -> {
+			if (theRepetition.count > 0) {
+				log.log(new Status(theRepetition.severity, pluginId, "Repeated " + theRepetition.count + " times: " + theMessage, null));
+			}
+		});
+		repetitions.clear();
+
+		if (droppedStatusCount > 0) {
+			log.log(new Status(IStatus.WARNING, pluginId, droppedStatusCount + " log messages dropped, more than " + RATE_LIMIT + " per second", null));
+			droppedStatusCount = 0;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.profidata.eclipse.project.model.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder implementation of {@link MutationRecording}, it must only be loaded if the Flight Recorder API is
+ * available.
+ */
+final class FlightRecorderMutationRecording implements MutationRecording {
+
+	@Name("com.profidata.eclipse.ProjectMutation")
+	@Label("Project Mutation")
+	@Category({ "Eclipse", "Project Model" })
+	@Description("Workspace mutation of a project made through the project model")
+	static class ProjectMutationEvent extends Event {
+		@Label("Project")
+		String project;
+
+		@Label("Operation")
+		String operation;
+
+		@Label("Detail")
+		String detail;
+
+		@Label("Succeeded")
+		boolean succeeded;
+	}
+
+	// the enablement is checked on the type, so no event is allocated while it is disabled
+	private static final EventType EVENT_TYPE = EventType.getEventType(ProjectMutationEvent.class);
+
+	private final ProjectMutationEvent event;
+
+	private FlightRecorderMutationRecording(ProjectMutationEvent theEvent) {
+		event = theEvent;
+	}
+
+	static MutationRecording start(Operation theOperation, String theProjectName) {
+		if (!EVENT_TYPE.isEnabled()) {
+			return NONE;
+		}
+
+		ProjectMutationEvent aEvent = new ProjectMutationEvent();
+
+		aEvent.project = theProjectName;
+		aEvent.operation = theOperation.name();
+		aEvent.begin();
+		return new FlightRecorderMutationRecording(aEvent);
+	}
+
+	@Override
+	public MutationRecording detail(String theDetail) {
+		event.detail = theDetail;
+		return this;
+	}
+
+	@Override
+	public void succeeded() {
+		event.succeeded = true;
+	}
+
+	@Override
+	public void close() {
+		event.commit();
+	}
+}
@@ -0,0 +1,49 @@
+package com.profidata.eclipse.project.model.monitor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of durations. Bucket <code>i</code> counts the durations below <code>2^i</code> milliseconds,
+ * the last bucket all longer ones.
+ */
+final class Histogram {
+	static final int BUCKET_COUNT = 18;
+
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	void record(long theNanos) {
+		long aMillis = theNanos / 1_000_000;
+		int aBucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(aMillis));
+
+		count.increment();
+		totalNanos.add(theNanos);
+		maxNanos.accumulate(theNanos);
+		buckets.incrementAndGet(aBucket);
+	}
+
+	long getCount() {
+		return count.sum();
+	}
+
+	long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	long[] getBuckets() {
+		long[] someBuckets = new long[BUCKET_COUNT];
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			someBuckets[i] = buckets.get(i);
+		}
+		return someBuckets;
+	}
+}
@@ -0,0 +1,90 @@
+package com.profidata.eclipse.project.model.monitor;
+
+import org.eclipse.core.resources.IProject;
+
+import com.profidata.eclipse.project.model.Activator;
+
+/**
+ * Records a workspace mutation of a project as JDK Flight Recorder event <code>com.profidata.eclipse.ProjectMutation</code>
+ * with its duration and outcome. If the runtime has no Flight Recorder or the event is not enabled by the running
+ * recording, a shared recording which does nothing is returned. If the {@link SynchronizationTrace} is enabled, the
+ * mutation is written to it as well.
+ *
+ * <pre>
+ * try (MutationRecording aRecording = MutationRecording.start(Operation.REFRESH, project)) {
+ * 	project.refreshLocal(IResource.DEPTH_INFINITE, null);
+ * 	aRecording.succeeded();
+ * }
+ * </pre>
+ */
+public interface MutationRecording extends AutoCloseable {
+
+	enum Operation {
+		SET_RAW_CLASSPATH,
+		ADD_NATURE,
+		REMOVE_NATURE,
+		CREATE_LINKED_SOURCE_FOLDER,
+		SET_DEFAULT_CHARSET,
+		SAVE_MANIFEST,
+		SAVE_BUILD_PROPERTIES,
+		REFRESH
+	}
+
+	MutationRecording NONE = new MutationRecording() {
+
+		@Override
+		public MutationRecording detail(String theDetail) {
+			return this;
+		}
+
+		@Override
+		public void succeeded() {
+			// nothing recorded
+		}
+
+		@Override
+		public void close() {
+			// nothing recorded
+		}
+	};
+
+	static MutationRecording start(Operation theOperation, IProject theProject) {
+		MutationRecording aRecording = FlightRecorderSupport.IS_AVAILABLE ? FlightRecorderMutationRecording.start(theOperation, theProject.getName()) : NONE;
+
+		return SynchronizationTrace.IS_ENABLED ? new TracedMutationRecording(aRecording, theOperation, theProject.getName()) : aRecording;
+	}
+
+	/**
+	 * Adds a detail like the nature or folder concerned to the event.
+	 */
+	MutationRecording detail(String theDetail);
+
+	/**
+	 * Marks the mutation as successful, a recording closed without it has failed.
+	 */
+	void succeeded();
+
+	@Override
+	void close();
+
+	/**
+	 * The Flight Recorder API is optional, its classes are only loaded if it is available.
+	 */
+	final class FlightRecorderSupport {
+		static final boolean IS_AVAILABLE = isAvailable();
+
+		private FlightRecorderSupport() {
+		}
+
+		private static boolean isAvailable() {
+			try {
+				Class.forName("jdk.jfr.Event", false, MutationRecording.class.getClassLoader());
+				return true;
+			}
+			catch (ClassNotFoundException | LinkageError theCause) {
+				Activator.info("JDK Flight Recorder not available -> project mutations are not recorded");
+				return false;
+			}
+		}
+	}
+}
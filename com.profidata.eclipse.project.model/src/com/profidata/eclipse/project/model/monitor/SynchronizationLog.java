@@ -0,0 +1,168 @@
+package com.profidata.eclipse.project.model.monitor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.profidata.eclipse.project.model.Activator;
+
+/**
+ * Bounded log of the changes made to the project definitions by a synchronization. The entries are written to the
+ * Eclipse log by a job once the synchronization has finished, by default as one summary of the counted changes. With
+ * <code>-Dextension.buildship.protocol.details=true</code> the entries are written as one status per project, the
+ * oldest entries are dropped if more than <code>extension.buildship.protocol.capacity</code> (default 10000) have been
+ * recorded.
+ */
+public final class SynchronizationLog {
+	private static final boolean IS_DETAILED = Boolean.valueOf(System.getProperty("extension.buildship.protocol.details", "false"));
+	// at least the latest entry is kept
+	private static final int CAPACITY = Math.max(1, Integer.getInteger("extension.buildship.protocol.capacity", 10000));
+	private static final long WRITE_DELAY = 500;
+
+	private static final SynchronizationLog INSTANCE = new SynchronizationLog();
+
+	/**
+	 * The types of logged changes
+	 */
+	public enum EntryType {
+		IMPORT_PACKAGE_ADDED("import package added", "import packages added"),
+		IMPORT_PACKAGE_REMOVED("import package removed", "import packages removed"),
+		SINGLETON_CHANGED("singleton changed", "singletons changed"),
+		EXECUTION_ENVIRONMENT_CHANGED("execution environment changed", "execution environments changed"),
+		CLASSPATH_ENTRY_ADDED("classpath entry added", "classpath entries added");
+
+		private final String description;
+		private final String pluralDescription;
+
+		private EntryType(String theDescription, String thePluralDescription) {
+			description = theDescription;
+			pluralDescription = thePluralDescription;
+		}
+	}
+
+	private static class Entry {
+		private final EntryType type;
+		private final String projectName;
+		private final String value;
+
+		Entry(EntryType theType, String theProjectName, String theValue) {
+			type = theType;
+			projectName = theProjectName;
+			value = theValue;
+		}
+	}
+
+	private final Deque<Entry> entries = new ArrayDeque<>();
+	private final Map<EntryType, Integer> entryCounts = new EnumMap<>(EntryType.class);
+	private final Set<String> changedProjects = new TreeSet<>();
+	private int droppedEntryCount;
+
+	private final AtomicInteger runningSynchronizations = new AtomicInteger();
+	private final Job writeJob = new Job("Write synchronization protocol") {
+
+		@Override
+		protected IStatus run(IProgressMonitor theMonitor) {
+			// a synchronization in progress writes the protocol once it has finished
+			if (runningSynchronizations.get() == 0) {
+				write();
+			}
+			return Status.OK_STATUS;
+		}
+	};
+
+	private SynchronizationLog() {
+		writeJob.setSystem(true);
+	}
+
+	/**
+	 * Records a change of the given project, it is written to the Eclipse log asynchronously.
+	 */
+	public static void record(EntryType theType, String theProjectName, String theValue) {
+		SynchronizationReport.recordChange(theType, theProjectName);
+
+		synchronized (INSTANCE) {
+			if (IS_DETAILED) {
+				if (INSTANCE.entries.size() >= CAPACITY) {
+					INSTANCE.entries.removeFirst();
+					INSTANCE.droppedEntryCount++;
+				}
+				INSTANCE.entries.addLast(new Entry(theType, theProjectName, theValue));
+			}
+			INSTANCE.entryCounts.merge(theType, 1, Integer::sum);
+			INSTANCE.changedProjects.add(theProjectName);
+		}
+		if (INSTANCE.runningSynchronizations.get() == 0) {
+			INSTANCE.writeJob.schedule(WRITE_DELAY);
+		}
+	}
+
+	static void synchronizationStarted() {
+		INSTANCE.runningSynchronizations.incrementAndGet();
+	}
+
+	static void synchronizationFinished() {
+		if (INSTANCE.runningSynchronizations.decrementAndGet() == 0) {
+			INSTANCE.writeJob.schedule(WRITE_DELAY);
+		}
+	}
+
+	private void write() {
+		List<Entry> allEntries;
+		Map<EntryType, Integer> allEntryCounts;
+		int aProjectCount;
+		int aDroppedEntryCount;
+
+		synchronized (this) {
+			if (changedProjects.isEmpty()) {
+				return;
+			}
+			allEntries = new ArrayList<>(entries);
+			allEntryCounts = new EnumMap<>(entryCounts);
+			aProjectCount = changedProjects.size();
+			aDroppedEntryCount = droppedEntryCount;
+
+			entries.clear();
+			entryCounts.clear();
+			changedProjects.clear();
+			droppedEntryCount = 0;
+		}
+
+		StringBuilder aSummary = new StringBuilder("Changed definition of ").append(aProjectCount).append(aProjectCount == 1 ? " project: " : " projects: ");
+		allEntryCounts.forEach((theType, theCount) -> aSummary.append(theCount).append(' ')
+				.append(theCount == 1 ? theType.description : theType.pluralDescription).append(", "));
+		aSummary.setLength(aSummary.length() - 2);
+
+		if (!IS_DETAILED) {
+			Activator.info(aSummary.toString());
+			return;
+		}
+
+		if (aDroppedEntryCount > 0) {
+			aSummary.append(" (").append(aDroppedEntryCount).append(" oldest changes dropped)");
+		}
+
+		Map<String, StringBuilder> allProjectMessages = new LinkedHashMap<>();
+		for (Entry aEntry : allEntries) {
+			allProjectMessages.computeIfAbsent(aEntry.projectName, theProjectName -> new StringBuilder(theProjectName).append(':'))
+					.append("\n - ").append(aEntry.type.description).append(": ").append(aEntry.value);
+		}
+
+		String aPluginId = Activator.getDefault().getBundle().getSymbolicName();
+		MultiStatus aStatus = new MultiStatus(aPluginId, 0, aSummary.toString(), null);
+		allProjectMessages.values().forEach(theMessage -> aStatus.add(new Status(IStatus.INFO, aPluginId, theMessage.toString(), null)));
+		Activator.log(aStatus);
+	}
+}
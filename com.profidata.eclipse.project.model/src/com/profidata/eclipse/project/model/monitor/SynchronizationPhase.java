@@ -0,0 +1,39 @@
+package com.profidata.eclipse.project.model.monitor;
+
+/**
+ * The timed phases of a Gradle synchronization.
+ */
+public enum SynchronizationPhase {
+	/**
+	 * The whole synchronization of a Gradle build
+	 */
+	SYNCHRONIZATION,
+
+	/**
+	 * The synchronization of a project including all enhancements made while it is synchronized
+	 */
+	SYNCHRONIZE_PROJECT,
+
+	/**
+	 * Buildship's own synchronization of a project
+	 */
+	BUILDSHIP_SYNCHRONIZATION,
+
+	IGNORE_PROJECT_FOLDER,
+
+	FIX_PROJECT_DEFINITION,
+
+	SOURCE_FOLDER_UPDATE,
+
+	TEST_FRAGMENT_CREATION,
+
+	/**
+	 * Update of the linked source folders, manifest and build properties of an existing test fragment
+	 */
+	TEST_FRAGMENT_UPDATE,
+
+	/**
+	 * All fixes applied to a project after it has been synchronized
+	 */
+	FIX_SYNCHRONIZED_PROJECT
+}
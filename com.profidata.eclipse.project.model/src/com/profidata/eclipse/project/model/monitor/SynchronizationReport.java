@@ -0,0 +1,256 @@
+package com.profidata.eclipse.project.model.monitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.osgi.framework.Bundle;
+
+import com.google.gson.GsonBuilder;
+import com.profidata.eclipse.project.model.Activator;
+import com.profidata.eclipse.project.model.monitor.SynchronizationLog.EntryType;
+import com.profidata.eclipse.project.model.monitor.SynchronizationStatistics.Mutation;
+
+/**
+ * Writes a JSON report of each Gradle synchronization to <code>reports/synchronization-&lt;timestamp&gt;.json</code> in
+ * the state location of the project model bundle (<code>.metadata/.plugins/com.profidata.eclipse.project.model</code>).
+ * The report lists the phase durations, skipped fixes, changes and errors of every synchronized project. It is written
+ * once nothing has been recorded for a while after the synchronization, so the fixes of the parallel fix jobs are
+ * included. Only the newest <code>extension.buildship.report.count</code> (default 20) reports are kept, 0 disables the
+ * reports.
+ * <p>
+ * The records of the parallel fix jobs are accumulated per project without locking. A project may report several
+ * errors, e.g. of its test fragment or of fixes which are applied despite an error.
+ */
+public final class SynchronizationReport {
+	private static final int REPORT_COUNT = Integer.getInteger("extension.buildship.report.count", 20);
+	private static final long WRITE_DELAY = 2000;
+
+	private static final SynchronizationReport INSTANCE = new SynchronizationReport();
+
+	static class PhaseReport {
+		final AtomicLong count = new AtomicLong();
+		final AtomicLong totalMillis = new AtomicLong();
+
+		void add(long theNanos) {
+			count.incrementAndGet();
+			totalMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(theNanos));
+		}
+	}
+
+	// the sorted concurrent maps keep the order of the written report
+	static class ProjectReport {
+		final Map<SynchronizationPhase, PhaseReport> phases = new ConcurrentSkipListMap<>();
+		final Map<SynchronizationPhase, String> skippedPhases = new ConcurrentSkipListMap<>();
+		final Map<EntryType, Integer> changes = new ConcurrentSkipListMap<>();
+		final Map<Mutation, Integer> mutations = new ConcurrentSkipListMap<>();
+		final Collection<String> errors = new ConcurrentLinkedQueue<>();
+	}
+
+	static class Report {
+		final String startTime = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date());
+		final Map<String, String> environment = new TreeMap<>();
+		long durationMillis;
+		final Map<SynchronizationPhase, PhaseReport> phases = new ConcurrentSkipListMap<>();
+		final Map<String, ProjectReport> projects = new ConcurrentSkipListMap<>();
+
+		private final transient long startNanos = System.nanoTime();
+	}
+
+	// replaced under the lock of the instance, the records only read it
+	private volatile Report report;
+	private int runningSynchronizations;
+	private volatile long lastRecordNanos;
+
+	private final Job writeJob = new Job("Write synchronization report") {
+
+		@Override
+		protected IStatus run(IProgressMonitor theMonitor) {
+			Report aReport = takeFinishedReport();
+
+			if (aReport != null) {
+				write(aReport);
+			}
+			return Status.OK_STATUS;
+		}
+	};
+
+	private SynchronizationReport() {
+		writeJob.setSystem(true);
+	}
+
+	public static void recordError(String theProjectName, String theErrorMessage) {
+		ProjectReport aProjectReport = INSTANCE.getProjectReport(theProjectName);
+
+		if (aProjectReport != null) {
+			aProjectReport.errors.add(theErrorMessage);
+		}
+	}
+
+	/**
+	 * Records that a phase has not been executed for the given project.
+	 *
+	 * @param theReason
+	 *            why the phase has been skipped, e.g. because the project is unchanged
+	 */
+	public static void recordSkipped(SynchronizationPhase thePhase, String theProjectName, String theReason) {
+		ProjectReport aProjectReport = INSTANCE.getProjectReport(theProjectName);
+
+		if (aProjectReport != null) {
+			aProjectReport.skippedPhases.put(thePhase, theReason);
+		}
+	}
+
+	static void synchronizationStarted() {
+		if (REPORT_COUNT <= 0) {
+			return;
+		}
+
+		synchronized (INSTANCE) {
+			if (INSTANCE.report == null) {
+				INSTANCE.report = new Report();
+			}
+			INSTANCE.runningSynchronizations++;
+		}
+	}
+
+	static void synchronizationFinished() {
+		if (REPORT_COUNT <= 0) {
+			return;
+		}
+
+		synchronized (INSTANCE) {
+			INSTANCE.runningSynchronizations--;
+			INSTANCE.lastRecordNanos = System.nanoTime();
+		}
+		INSTANCE.writeJob.schedule(WRITE_DELAY);
+	}
+
+	static void recordPhase(SynchronizationPhase thePhase, String theProjectName, long theNanos) {
+		Report aReport = INSTANCE.report;
+
+		if (aReport == null) {
+			return;
+		}
+
+		Map<SynchronizationPhase, PhaseReport> allPhases = theProjectName != null ? INSTANCE.getProjectReport(aReport, theProjectName).phases : aReport.phases;
+
+		INSTANCE.lastRecordNanos = System.nanoTime();
+		allPhases.computeIfAbsent(thePhase, thePhaseKey -> new PhaseReport()).add(theNanos);
+	}
+
+	static void recordChange(EntryType theType, String theProjectName) {
+		ProjectReport aProjectReport = INSTANCE.getProjectReport(theProjectName);
+
+		if (aProjectReport != null) {
+			aProjectReport.changes.merge(theType, 1, Integer::sum);
+		}
+	}
+
+	static void recordMutation(Mutation theMutation, String theProjectName) {
+		ProjectReport aProjectReport = INSTANCE.getProjectReport(theProjectName);
+
+		if (aProjectReport != null) {
+			aProjectReport.mutations.merge(theMutation, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * @return the report of the given project, <code>null</code> if no report is being recorded
+	 */
+	private ProjectReport getProjectReport(String theProjectName) {
+		Report aReport = report;
+
+		return aReport != null ? getProjectReport(aReport, theProjectName) : null;
+	}
+
+	private ProjectReport getProjectReport(Report theReport, String theProjectName) {
+		lastRecordNanos = System.nanoTime();
+		return theReport.projects.computeIfAbsent(theProjectName, theName -> new ProjectReport());
+	}
+
+	/**
+	 * @return the report if the synchronizations have finished and the fixes have been idle for a while,
+	 *         <code>null</code> otherwise
+	 */
+	private synchronized Report takeFinishedReport() {
+		if (report == null || runningSynchronizations > 0) {
+			return null;
+		}
+
+		long aIdleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastRecordNanos);
+
+		if (aIdleMillis < WRITE_DELAY) {
+			writeJob.schedule(WRITE_DELAY - aIdleMillis);
+			return null;
+		}
+
+		Report aReport = report;
+
+		aReport.durationMillis = TimeUnit.NANOSECONDS.toMillis(lastRecordNanos - aReport.startNanos);
+		report = null;
+		return aReport;
+	}
+
+	private static void write(Report theReport) {
+		theReport.environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version") + " " + System.getProperty("os.arch"));
+		theReport.environment.put("java", System.getProperty("java.version"));
+		theReport.environment.put("processors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+		theReport.environment.put("buildship", getBundleVersion("org.eclipse.buildship.core"));
+		theReport.environment.put("enhancements", getBundleVersion("com.profidata.eclipse.buildship.enhancements"));
+
+		File aReportFolder = Activator.getDefault().getStateLocation().append("reports").toFile();
+		String aFileName = "synchronization-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + ".json";
+
+		try {
+			Files.createDirectories(aReportFolder.toPath());
+			try (Writer aWriter = Files.newBufferedWriter(aReportFolder.toPath().resolve(aFileName), StandardCharsets.UTF_8)) {
+				new GsonBuilder().setPrettyPrinting().create().toJson(theReport, aWriter);
+			}
+			deleteOldReports(aReportFolder);
+		}
+		catch (IOException theCause) {
+			Activator.error("Failed to write synchronization report " + aFileName + ": " + theCause.getLocalizedMessage(), theCause);
+		}
+	}
+
+	private static void deleteOldReports(File theReportFolder) throws IOException {
+		File[] someReports = theReportFolder.listFiles((theFolder, theName) -> theName.startsWith("synchronization-") && theName.endsWith(".json"));
+
+		if (someReports == null || someReports.length <= REPORT_COUNT) {
+			return;
+		}
+
+		// the timestamp in the name sorts the reports from the oldest to the newest one
+		Arrays.sort(someReports, Comparator.comparing(File::getName));
+		for (int i = 0; i < someReports.length - REPORT_COUNT; i++) {
+			Files.deleteIfExists(someReports[i].toPath());
+		}
+	}
+
+	private static String getBundleVersion(String theSymbolicName) {
+		for (Bundle aBundle : Activator.getContext().getBundles()) {
+			if (theSymbolicName.equals(aBundle.getSymbolicName())) {
+				return aBundle.getVersion().toString();
+			}
+		}
+		return null;
+	}
+}
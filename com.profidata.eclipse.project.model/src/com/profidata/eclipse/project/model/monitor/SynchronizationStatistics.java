@@ -0,0 +1,200 @@
+package com.profidata.eclipse.project.model.monitor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the wall time of the synchronization phases per project and counts the workspace mutations made through
+ * {@link com.profidata.eclipse.project.model.ProjectWrapper}. Recording is lock free, so it can be done from
+ * parallel fix jobs. The spans are also written to the {@link SynchronizationTrace} if it is enabled.
+ */
+public final class SynchronizationStatistics implements SynchronizationStatisticsMXBean {
+	public static final String OBJECT_NAME = "com.profidata.eclipse.project.model:type=SynchronizationStatistics";
+
+	private static final SynchronizationStatistics INSTANCE = new SynchronizationStatistics();
+
+	public static SynchronizationStatistics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Workspace mutations counted per project
+	 */
+	public enum Mutation {
+		SET_RAW_CLASSPATH,
+		MANIFEST_SAVE,
+		BUILD_PROPERTIES_SAVE,
+		REFRESH_LOCAL
+	}
+
+	/**
+	 * Measures the wall time of a phase until it is closed.
+	 */
+	public static final class Span implements AutoCloseable {
+		private final SynchronizationPhase phase;
+		private final String projectName;
+		private final long start = System.nanoTime();
+
+		private Span(SynchronizationPhase thePhase, String theProjectName) {
+			phase = thePhase;
+			projectName = theProjectName;
+		}
+
+		@Override
+		public void close() {
+			long aEnd = System.nanoTime();
+
+			INSTANCE.record(phase, projectName, aEnd - start);
+			SynchronizationReport.recordPhase(phase, projectName, aEnd - start);
+			if (phase == SynchronizationPhase.SYNCHRONIZATION) {
+				SynchronizationLog.synchronizationFinished();
+				AsynchronousLog.synchronizationFinished();
+				SynchronizationReport.synchronizationFinished();
+			}
+			if (SynchronizationTrace.IS_ENABLED) {
+				SynchronizationTrace.complete(phase.name(), "phase", projectName, null, start, aEnd);
+				if (phase == SynchronizationPhase.SYNCHRONIZATION) {
+					SynchronizationTrace.synchronizationFinished();
+				}
+			}
+		}
+	}
+
+	private static class ProjectCounters {
+		private final LongAdder[] phaseCounts = newAdders(SynchronizationPhase.values().length);
+		private final LongAdder[] phaseNanos = newAdders(SynchronizationPhase.values().length);
+		private final LongAdder[] mutationCounts = newAdders(Mutation.values().length);
+
+		private static LongAdder[] newAdders(int theCount) {
+			LongAdder[] someAdders = new LongAdder[theCount];
+
+			for (int i = 0; i < theCount; i++) {
+				someAdders[i] = new LongAdder();
+			}
+			return someAdders;
+		}
+	}
+
+	private volatile Map<SynchronizationPhase, Histogram> phaseHistograms = newPhaseHistograms();
+	private final Map<String, ProjectCounters> projectCounters = new ConcurrentHashMap<>();
+	private final LongAdder[] mutationCounts = ProjectCounters.newAdders(Mutation.values().length);
+
+	private SynchronizationStatistics() {
+	}
+
+	/**
+	 * @param theProjectName
+	 *            the project the phase is executed for, <code>null</code> if the phase concerns the whole build
+	 */
+	public static Span start(SynchronizationPhase thePhase, String theProjectName) {
+		if (thePhase == SynchronizationPhase.SYNCHRONIZATION) {
+			SynchronizationLog.synchronizationStarted();
+			AsynchronousLog.synchronizationStarted();
+			SynchronizationReport.synchronizationStarted();
+		}
+		if (SynchronizationTrace.IS_ENABLED && thePhase == SynchronizationPhase.SYNCHRONIZATION) {
+			SynchronizationTrace.synchronizationStarted();
+		}
+		return new Span(thePhase, theProjectName);
+	}
+
+	public static void count(Mutation theMutation, String theProjectName) {
+		INSTANCE.mutationCounts[theMutation.ordinal()].increment();
+		INSTANCE.getProjectCounters(theProjectName).mutationCounts[theMutation.ordinal()].increment();
+		SynchronizationReport.recordMutation(theMutation, theProjectName);
+	}
+
+	void record(SynchronizationPhase thePhase, String theProjectName, long theNanos) {
+		phaseHistograms.get(thePhase).record(theNanos);
+
+		if (theProjectName != null) {
+			ProjectCounters aCounters = getProjectCounters(theProjectName);
+
+			aCounters.phaseCounts[thePhase.ordinal()].increment();
+			aCounters.phaseNanos[thePhase.ordinal()].add(theNanos);
+		}
+	}
+
+	@Override
+	public List<PhaseStatistics> getPhaseStatistics() {
+		List<PhaseStatistics> allStatistics = new ArrayList<>();
+
+		phaseHistograms.forEach((thePhase, theHistogram) -> allStatistics.add(new PhaseStatistics(
+				thePhase.name(),
+				theHistogram.getCount(),
+				TimeUnit.NANOSECONDS.toMillis(theHistogram.getTotalNanos()),
+				TimeUnit.NANOSECONDS.toMillis(theHistogram.getMaxNanos()),
+				theHistogram.getBuckets())));
+		return allStatistics;
+	}
+
+	@Override
+	public List<ProjectStatistics> getProjectStatistics() {
+		List<ProjectStatistics> allStatistics = new ArrayList<>();
+
+		projectCounters.forEach((theProjectName, theCounters) -> {
+			for (SynchronizationPhase aPhase : SynchronizationPhase.values()) {
+				long aCount = theCounters.phaseCounts[aPhase.ordinal()].sum();
+
+				if (aCount > 0) {
+					allStatistics.add(new ProjectStatistics(theProjectName, aPhase.name(), aCount, TimeUnit.NANOSECONDS.toMillis(theCounters.phaseNanos[aPhase.ordinal()].sum())));
+				}
+			}
+			for (Mutation aMutation : Mutation.values()) {
+				long aCount = theCounters.mutationCounts[aMutation.ordinal()].sum();
+
+				if (aCount > 0) {
+					allStatistics.add(new ProjectStatistics(theProjectName, aMutation.name(), aCount, 0));
+				}
+			}
+		});
+		return allStatistics;
+	}
+
+	@Override
+	public long getSetRawClasspathCount() {
+		return mutationCounts[Mutation.SET_RAW_CLASSPATH.ordinal()].sum();
+	}
+
+	@Override
+	public long getManifestSaveCount() {
+		return mutationCounts[Mutation.MANIFEST_SAVE.ordinal()].sum();
+	}
+
+	@Override
+	public long getBuildPropertiesSaveCount() {
+		return mutationCounts[Mutation.BUILD_PROPERTIES_SAVE.ordinal()].sum();
+	}
+
+	@Override
+	public long getRefreshLocalCount() {
+		return mutationCounts[Mutation.REFRESH_LOCAL.ordinal()].sum();
+	}
+
+	@Override
+	public void reset() {
+		phaseHistograms = newPhaseHistograms();
+		projectCounters.clear();
+		for (LongAdder aMutationCount : mutationCounts) {
+			aMutationCount.reset();
+		}
+	}
+
+	private ProjectCounters getProjectCounters(String theProjectName) {
+		return projectCounters.computeIfAbsent(theProjectName, theName -> new ProjectCounters());
+	}
+
+	private static Map<SynchronizationPhase, Histogram> newPhaseHistograms() {
+		Map<SynchronizationPhase, Histogram> allHistograms = new EnumMap<>(SynchronizationPhase.class);
+
+		for (SynchronizationPhase aPhase : SynchronizationPhase.values()) {
+			allHistograms.put(aPhase, new Histogram());
+		}
+		return allHistograms;
+	}
+}
@@ -0,0 +1,105 @@
+package com.profidata.eclipse.project.model.monitor;
+
+import java.util.List;
+
+/**
+ * Timings and workspace mutations of the Gradle synchronizations since startup or the last reset, registered as
+ * <code>com.profidata.eclipse.project.model:type=SynchronizationStatistics</code>.
+ */
+public interface SynchronizationStatisticsMXBean {
+
+	/**
+	 * Statistics of a phase over all projects
+	 */
+	public static class PhaseStatistics {
+		private final String phase;
+		private final long count;
+		private final long totalMillis;
+		private final long maxMillis;
+		private final long[] histogram;
+
+		PhaseStatistics(String thePhase, long theCount, long theTotalMillis, long theMaxMillis, long[] theHistogram) {
+			phase = thePhase;
+			count = theCount;
+			totalMillis = theTotalMillis;
+			maxMillis = theMaxMillis;
+			histogram = theHistogram;
+		}
+
+		public String getPhase() {
+			return phase;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getTotalMillis() {
+			return totalMillis;
+		}
+
+		public long getMaxMillis() {
+			return maxMillis;
+		}
+
+		/**
+		 * @return the number of durations below 1, 2, 4, ... milliseconds, the last element counts all longer ones
+		 */
+		public long[] getHistogram() {
+			return histogram;
+		}
+	}
+
+	/**
+	 * Statistics of a phase or a counted workspace mutation of one project
+	 */
+	public static class ProjectStatistics {
+		private final String project;
+		private final String name;
+		private final long count;
+		private final long totalMillis;
+
+		ProjectStatistics(String theProject, String theName, long theCount, long theTotalMillis) {
+			project = theProject;
+			name = theName;
+			count = theCount;
+			totalMillis = theTotalMillis;
+		}
+
+		public String getProject() {
+			return project;
+		}
+
+		/**
+		 * @return the name of the phase or of the counted workspace mutation
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the total time of the phase, 0 for a counted workspace mutation
+		 */
+		public long getTotalMillis() {
+			return totalMillis;
+		}
+	}
+
+	List<PhaseStatistics> getPhaseStatistics();
+
+	List<ProjectStatistics> getProjectStatistics();
+
+	long getSetRawClasspathCount();
+
+	long getManifestSaveCount();
+
+	long getBuildPropertiesSaveCount();
+
+	long getRefreshLocalCount();
+
+	void reset();
+}
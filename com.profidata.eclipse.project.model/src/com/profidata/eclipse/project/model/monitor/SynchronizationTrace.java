@@ -0,0 +1,203 @@
+package com.profidata.eclipse.project.model.monitor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.profidata.eclipse.project.model.Activator;
+
+/**
+ * Writes the spans of the synchronizations and the project mutations as Chrome trace events (JSON array format), which
+ * can be opened in Perfetto or <code>chrome://tracing</code>. Enabled by the system property
+ * <code>extension.buildship.trace=true</code>, each synchronization is written to its own file
+ * <code>synchronization-&lt;timestamp&gt;.json</code> in the state location of the project model bundle.
+ * <p>
+ * The events are queued by the recording threads and written by a daemon thread, so tracing does not block the
+ * synchronization by file I/O.
+ */
+final class SynchronizationTrace {
+	static final boolean IS_ENABLED = Boolean.valueOf(System.getProperty("extension.buildship.trace", "false"));
+
+	private static final SynchronizationTrace INSTANCE = IS_ENABLED ? new SynchronizationTrace() : null;
+
+	private static class TraceEvent {
+		private final String name;
+		private final String category;
+		private final String projectName;
+		private final String detail;
+		private final long threadId = Thread.currentThread().getId();
+		private final String threadName = Thread.currentThread().getName();
+		private final long startNanos;
+		private final long endNanos;
+
+		TraceEvent(String theName, String theCategory, String theProjectName, String theDetail, long theStartNanos, long theEndNanos) {
+			name = theName;
+			category = theCategory;
+			projectName = theProjectName;
+			detail = theDetail;
+			startNanos = theStartNanos;
+			endNanos = theEndNanos;
+		}
+	}
+
+	/**
+	 * Queued if a synchronization starts while no other one is running, the following events are written to a new file
+	 */
+	private static class NewSession {
+		private final long startNanos = System.nanoTime();
+	}
+
+	private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+	private final AtomicInteger runningSynchronizations = new AtomicInteger();
+
+	private SynchronizationTrace() {
+		Thread aWriterThread = new Thread(this::writeEvents, "Synchronization Trace Writer");
+
+		aWriterThread.setDaemon(true);
+		aWriterThread.start();
+	}
+
+	static void synchronizationStarted() {
+		if (INSTANCE.runningSynchronizations.getAndIncrement() == 0) {
+			INSTANCE.events.add(new NewSession());
+		}
+	}
+
+	static void synchronizationFinished() {
+		INSTANCE.runningSynchronizations.decrementAndGet();
+	}
+
+	/**
+	 * @param theProjectName
+	 *            the project the event belongs to, <code>null</code> if it concerns the whole build
+	 * @param theDetail
+	 *            an additional detail shown in the arguments of the event, may be <code>null</code>
+	 */
+	static void complete(String theName, String theCategory, String theProjectName, String theDetail, long theStartNanos, long theEndNanos) {
+		INSTANCE.events.add(new TraceEvent(theName, theCategory, theProjectName, theDetail, theStartNanos, theEndNanos));
+	}
+
+	private void writeEvents() {
+		TraceFile aTraceFile = null;
+
+		while (true) {
+			try {
+				Object aEvent = events.poll();
+
+				if (aEvent == null) {
+					// flush while idle, Perfetto also opens a trace whose array is not yet closed
+					if (aTraceFile != null) {
+						aTraceFile.flush();
+					}
+					aEvent = events.take();
+				}
+
+				if (aEvent instanceof NewSession) {
+					if (aTraceFile != null) {
+						aTraceFile.close();
+					}
+					aTraceFile = TraceFile.create(((NewSession) aEvent).startNanos);
+				}
+				else {
+					if (aTraceFile == null) {
+						// e.g. a project configured outside of a synchronization span
+						aTraceFile = TraceFile.create(((TraceEvent) aEvent).startNanos);
+					}
+					aTraceFile.write((TraceEvent) aEvent);
+				}
+			}
+			catch (InterruptedException theCause) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (IOException theCause) {
+				Activator.error("Failed to write synchronization trace: " + theCause.getLocalizedMessage(), theCause);
+				aTraceFile = null;
+			}
+		}
+	}
+
+	private static class TraceFile {
+		private final Writer writer;
+		private final long originNanos;
+		private final Set<Long> namedThreads = new HashSet<>();
+
+		private TraceFile(Writer theWriter, long theOriginNanos) {
+			writer = theWriter;
+			originNanos = theOriginNanos;
+		}
+
+		static TraceFile create(long theOriginNanos) throws IOException {
+			String aFileName = "synchronization-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + ".json";
+			Path aFile = Activator.getDefault().getStateLocation().append(aFileName).toFile().toPath();
+			BufferedWriter aWriter = Files.newBufferedWriter(aFile, StandardCharsets.UTF_8);
+
+			Activator.info("Writing synchronization trace to " + aFile);
+			aWriter.write("[\n{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":\"Eclipse\"}}");
+			return new TraceFile(aWriter, theOriginNanos);
+		}
+
+		void write(TraceEvent theEvent) throws IOException {
+			if (namedThreads.add(theEvent.threadId)) {
+				writer.write(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + theEvent.threadId + ",\"args\":{\"name\":" + quote(theEvent.threadName) + "}}");
+			}
+
+			StringBuilder aArgs = new StringBuilder();
+
+			if (theEvent.projectName != null) {
+				aArgs.append("\"project\":").append(quote(theEvent.projectName));
+			}
+			if (theEvent.detail != null) {
+				aArgs.append(aArgs.length() > 0 ? "," : "").append("\"detail\":").append(quote(theEvent.detail));
+			}
+
+			writer.write(",\n{\"name\":" + quote(theEvent.name)
+					+ ",\"cat\":" + quote(theEvent.category)
+					+ ",\"ph\":\"X\",\"pid\":1,\"tid\":" + theEvent.threadId
+					+ ",\"ts\":" + toMicros(theEvent.startNanos - originNanos)
+					+ ",\"dur\":" + toMicros(theEvent.endNanos - theEvent.startNanos)
+					+ ",\"args\":{" + aArgs + "}}");
+		}
+
+		void flush() throws IOException {
+			writer.flush();
+		}
+
+		void close() throws IOException {
+			writer.write("\n]\n");
+			writer.close();
+		}
+
+		private static String toMicros(long theNanos) {
+			return String.format(Locale.ROOT, "%.3f", theNanos / 1000.0);
+		}
+
+		private static String quote(String theValue) {
+			StringBuilder aQuoted = new StringBuilder(theValue.length() + 2).append('"');
+
+			for (char aChar : theValue.toCharArray()) {
+				if (aChar == '"' || aChar == '\\') {
+					aQuoted.append('\\').append(aChar);
+				}
+				else if (aChar < 0x20) {
+					aQuoted.append(String.format("\\u%04x", (int) aChar));
+				}
+				else {
+					aQuoted.append(aChar);
+				}
+			}
+			return aQuoted.append('"').toString();
+		}
+	}
+}
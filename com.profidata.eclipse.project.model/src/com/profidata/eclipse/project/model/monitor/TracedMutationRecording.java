@@ -0,0 +1,38 @@
+package com.profidata.eclipse.project.model.monitor;
+
+/**
+ * Writes a mutation to the {@link SynchronizationTrace} in addition to the recording it delegates to.
+ */
+final class TracedMutationRecording implements MutationRecording {
+	private final MutationRecording recording;
+	private final Operation operation;
+	private final String projectName;
+	private final long start = System.nanoTime();
+	private String detail;
+	private boolean isSucceeded;
+
+	TracedMutationRecording(MutationRecording theRecording, Operation theOperation, String theProjectName) {
+		recording = theRecording;
+		operation = theOperation;
+		projectName = theProjectName;
+	}
+
+	@Override
+	public MutationRecording detail(String theDetail) {
+		detail = theDetail;
+		recording.detail(theDetail);
+		return this;
+	}
+
+	@Override
+	public void succeeded() {
+		isSucceeded = true;
+		recording.succeeded();
+	}
+
+	@Override
+	public void close() {
+		recording.close();
+		SynchronizationTrace.complete(operation.name(), isSucceeded ? "mutation" : "failed mutation", projectName, detail, start, System.nanoTime());
+	}
+}